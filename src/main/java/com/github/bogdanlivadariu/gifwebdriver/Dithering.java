@@ -0,0 +1,22 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+/**
+ * How the colors missing from a {@link GifPalette} are approximated
+ */
+public enum Dithering {
+
+    /**
+     * Every pixel takes the nearest palette color, fastest and best for flat UI colors
+     */
+    NONE,
+
+    /**
+     * 4x4 Bayer matrix, cheap and stable between frames so it does not flicker
+     */
+    ORDERED,
+
+    /**
+     * Floyd-Steinberg error diffusion, smoothest gradients but the pattern can change between frames
+     */
+    ERROR_DIFFUSION
+}
@@ -0,0 +1,206 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Thins a sequence of frames down to a maximum number of frames.
+ * <p>
+ * Frames that look the most like the frame shown before them are dropped first, so uniform stretches are thinned
+ * while busy stretches keep their frames. The delay of a dropped frame is merged into the previous kept frame
+ * so the timing of the GIF is preserved. The first, the last and the key frames are only dropped when there is
+ * no other way to stay within the limit.
+ */
+final class FrameDecimator {
+
+    /**
+     * Width and height of the grid sampled from every screenshot when frames are compared by their pixels
+     */
+    static final int THUMBNAIL_SIZE = 16;
+
+    private FrameDecimator() {
+    }
+
+    /**
+     * @param frames - frames in the order they were taken
+     * @param limit  - maximum number of frames to keep, 0 or less means no limit, the first and last frame are
+     *               always kept
+     * @return - the kept frames with merged delays, the same list when it already fits the limit
+     */
+    static List<GifFrame> decimate(List<GifFrame> frames, int limit) {
+        int count = frames.size();
+        if (limit <= 0 || count <= limit) {
+            return frames;
+        }
+
+        int[] previous = new int[count];
+        int[] next = new int[count];
+        int[] delays = new int[count];
+        int[] versions = new int[count];
+        boolean[] removed = new boolean[count];
+
+        for (int i = 0; i < count; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+            delays[i] = frames.get(i).getDelay();
+        }
+
+        int remaining = count;
+        for (boolean includeKeyFrames : new boolean[] {false, true}) {
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+            for (int i = 1; i < count - 1; i++) {
+                if (!removed[i] && isRemovable(frames.get(i), includeKeyFrames)) {
+                    queue.add(candidate(frames, previous, delays, versions, i));
+                }
+            }
+
+            while (remaining > Math.max(limit, 2) && !queue.isEmpty()) {
+                Candidate candidate = queue.poll();
+                int index = candidate.index;
+                if (removed[index] || candidate.version != versions[index]) {
+                    continue;
+                }
+
+                int before = previous[index];
+                int after = next[index];
+
+                removed[index] = true;
+                remaining--;
+                delays[before] += delays[index];
+                next[before] = after;
+                previous[after] = before;
+
+                for (int neighbour : new int[] {before, after}) {
+                    versions[neighbour]++;
+                    if (neighbour > 0 && neighbour < count - 1
+                        && isRemovable(frames.get(neighbour), includeKeyFrames)) {
+                        queue.add(candidate(frames, previous, delays, versions, neighbour));
+                    }
+                }
+            }
+        }
+
+        List<GifFrame> kept = new ArrayList<>(remaining);
+        for (int i = 0; i < count; i++) {
+            if (!removed[i]) {
+                kept.add(frames.get(i).withDelay(delays[i]));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return - value between 0 (frames look the same) and 1 (frames are completely different), the mean channel
+     * difference of the thumbnails when both frames have one, the difference of the file sizes otherwise
+     */
+    static double difference(GifFrame first, GifFrame second) {
+        if (first.getThumbnail() != null && second.getThumbnail() != null) {
+            return difference(first.getThumbnail(), second.getThumbnail());
+        }
+
+        long max = Math.max(Math.max(first.getSize(), second.getSize()), 1);
+        return (double) Math.abs(first.getSize() - second.getSize()) / max;
+    }
+
+    private static double difference(int[] first, int[] second) {
+        if (first.length != second.length || first.length == 0) {
+            return 1;
+        }
+
+        long total = 0;
+        for (int i = 0; i < first.length; i++) {
+            total += Math.abs((first[i] >> 16 & 0xff) - (second[i] >> 16 & 0xff))
+                + Math.abs((first[i] >> 8 & 0xff) - (second[i] >> 8 & 0xff))
+                + Math.abs((first[i] & 0xff) - (second[i] & 0xff));
+        }
+        return (double) total / (first.length * 3L * 255);
+    }
+
+    /**
+     * Decodes the screenshot subsampled to about twice the thumbnail size and samples a
+     * {@link #THUMBNAIL_SIZE} x {@link #THUMBNAIL_SIZE} grid out of it
+     *
+     * @return - RGB pixels of the grid, row by row
+     */
+    static int[] thumbnail(File screenshot) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(screenshot)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException(String.format("Screenshot '%s' can not be read", screenshot));
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(
+                    Math.max(reader.getWidth(0) / (THUMBNAIL_SIZE * 2), 1),
+                    Math.max(reader.getHeight(0) / (THUMBNAIL_SIZE * 2), 1),
+                    0, 0);
+                return thumbnail(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int[] thumbnail(BufferedImage image) {
+        int[] pixels = new int[THUMBNAIL_SIZE * THUMBNAIL_SIZE];
+        for (int y = 0; y < THUMBNAIL_SIZE; y++) {
+            for (int x = 0; x < THUMBNAIL_SIZE; x++) {
+                pixels[y * THUMBNAIL_SIZE + x] = image.getRGB(
+                    x * image.getWidth() / THUMBNAIL_SIZE,
+                    y * image.getHeight() / THUMBNAIL_SIZE);
+            }
+        }
+        return pixels;
+    }
+
+    private static boolean isRemovable(GifFrame frame, boolean includeKeyFrames) {
+        return includeKeyFrames || !frame.isKeyFrame();
+    }
+
+    private static Candidate candidate(List<GifFrame> frames, int[] previous, int[] delays, int[] versions,
+        int index) {
+        int before = previous[index];
+        return new Candidate(
+            index,
+            versions[index],
+            difference(frames.get(before), frames.get(index)),
+            delays[before] + delays[index]);
+    }
+
+    private static class Candidate {
+
+        // least visible change first, then the shortest merged delay so uniform stretches are thinned evenly
+        private static final Comparator<Candidate> ORDER = Comparator
+            .comparingDouble((Candidate candidate) -> candidate.cost)
+            .thenComparingInt(candidate -> candidate.mergedDelay)
+            .thenComparingInt(candidate -> candidate.index);
+
+        private final int index;
+
+        private final int version;
+
+        private final double cost;
+
+        private final int mergedDelay;
+
+        private Candidate(int index, int version, double cost, int mergedDelay) {
+            this.index = index;
+            this.version = version;
+            this.cost = cost;
+            this.mergedDelay = mergedDelay;
+        }
+    }
+}
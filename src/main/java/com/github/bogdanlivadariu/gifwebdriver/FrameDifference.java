@@ -0,0 +1,17 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+/**
+ * How the change between two screenshots is measured when frames are dropped to fit the budget of a GIF
+ */
+public enum FrameDifference {
+
+    /**
+     * Compares the pixels of downscaled screenshots, catches scrolling and full repaints that keep the same file size
+     */
+    PIXELS,
+
+    /**
+     * Compares the sizes of the screenshot files, no decoding at all but blind to changes that do not change the size
+     */
+    FILE_SIZE
+}
@@ -0,0 +1,445 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Creates the GIFs of screenshots captured earlier, possibly on another machine.
+ * <p>
+ * Every session folder, "gifScreenshotWorker/uniqueId" by default, is picked up as if it was the root dir of
+ * the {@link GifScreenshotWorker} that took the screenshots, so the GIF ends up where the worker would have
+ * written it. Sessions are encoded in parallel and every finished session is recorded in a progress file
+ * next to them, so an interrupted batch resumes where it stopped.
+ * <p>
+ * Command line usage:
+ * <pre>
+ * java -cp gif-webdriver.jar:dependencies com.github.bogdanlivadariu.gifwebdriver.GifBatchCreator [options] dir...
+ * </pre>
+ */
+public class GifBatchCreator {
+
+    public static final String PROGRESS_FILE_NAME = "gifBatchCreator.progress";
+
+    private static final int RANDOM_SUFFIX_LENGTH = 10;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "usage: GifBatchCreator [options] <dir>...",
+        "  <dir>                   folder holding session folders, or a session folder itself",
+        "  --threads <n>           sessions encoded in parallel, defaults to the number of processors",
+        "  --screenshots <name>    screenshots folder of a session, defaults to 'screenshots'",
+        "  --gifs <name>           generated GIFs folder of a session, defaults to 'generatedGifs'",
+        "  --delay <ms>            delay between frames, defaults to 500",
+        "  --loop                  loop the generated GIFs",
+        "  --max-frames <n>        maximum number of frames of a GIF",
+        "  --max-duration <ms>     maximum time a GIF takes to play once",
+        "  --max-bytes <n>         approximate maximum size of a GIF",
+        "  --frame-difference <m>  PIXELS or FILE_SIZE, how frames are compared when they are dropped",
+        "  --palette-cache <dir>   reuse palettes persisted in the given folder",
+        "  --palette-key <key>     palette shared by every session, required for the palette cache to be used",
+        "  --dithering <mode>      NONE, ORDERED or ERROR_DIFFUSION, used with a palette cache",
+        "  --restart               ignore the progress of earlier runs");
+
+    private final Logger logger = LogManager.getLogger(GifBatchCreator.class);
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private String screenshotsFolderName = "screenshots";
+
+    private String generatedGIFsFolderName = "generatedGifs";
+
+    private boolean resume = true;
+
+    private String paletteKey;
+
+    private Consumer<GifScreenshotWorker> workerConfiguration = worker -> {
+    };
+
+    public static void main(String[] args) {
+        int status = run(args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Runs the command line entry point without exiting the JVM
+     *
+     * @param args - command line arguments
+     * @return - 0 when every session was encoded, 1 when some failed, 2 on invalid arguments
+     */
+    static int run(String[] args) {
+        GifBatchCreator creator = new GifBatchCreator();
+        List<Consumer<GifScreenshotWorker>> settings = new ArrayList<>();
+        List<File> roots = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        creator.setThreads(Integer.parseInt(args[++i]));
+                        break;
+                    case "--screenshots":
+                        creator.setScreenshotsFolderName(args[++i]);
+                        break;
+                    case "--gifs":
+                        creator.setGeneratedGIFsFolderName(args[++i]);
+                        break;
+                    case "--delay":
+                        int delay = Integer.parseInt(args[++i]);
+                        settings.add(worker -> worker.setTimeBetweenFramesInMilliseconds(delay));
+                        break;
+                    case "--loop":
+                        settings.add(worker -> worker.setLoopContinuously(true));
+                        break;
+                    case "--max-frames":
+                        int maxFrames = Integer.parseInt(args[++i]);
+                        settings.add(worker -> worker.setMaxFrames(maxFrames));
+                        break;
+                    case "--max-duration":
+                        int maxDuration = Integer.parseInt(args[++i]);
+                        settings.add(worker -> worker.setMaxTotalDurationInMilliseconds(maxDuration));
+                        break;
+                    case "--max-bytes":
+                        long maxBytes = Long.parseLong(args[++i]);
+                        settings.add(worker -> worker.setMaxOutputBytes(maxBytes));
+                        break;
+                    case "--frame-difference":
+                        FrameDifference frameDifference = FrameDifference.valueOf(args[++i]);
+                        settings.add(worker -> worker.setFrameDifference(frameDifference));
+                        break;
+                    case "--palette-cache":
+                        PaletteCache paletteCache = new PaletteCache(new File(args[++i]));
+                        settings.add(worker -> worker.setPaletteCache(paletteCache));
+                        break;
+                    case "--palette-key":
+                        creator.setPaletteKey(args[++i]);
+                        break;
+                    case "--dithering":
+                        Dithering dithering = Dithering.valueOf(args[++i]);
+                        settings.add(worker -> worker.setDithering(dithering));
+                        break;
+                    case "--restart":
+                        creator.setResume(false);
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        roots.add(new File(args[i]));
+                }
+            }
+            if (roots.isEmpty()) {
+                throw new IllegalArgumentException("No folder to process");
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            System.err.println("Missing value for option " + args[args.length - 1]);
+            System.err.println(USAGE);
+            return 2;
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        creator.setWorkerConfiguration(worker -> settings.forEach(setting -> setting.accept(worker)));
+
+        Map<File, File> gifs = creator.createGifs(roots.toArray(new File[0]));
+        return gifs.containsValue(null) ? 1 : 0;
+    }
+
+    /**
+     * Screenshot file names are the counter of the worker followed by 10 random alphanumeric characters,
+     * the random part may start with digits so it is cut off before reading the counter
+     */
+    static long getCounter(File screenshot) {
+        String name = screenshot.getName();
+        int extension = name.lastIndexOf('.');
+        String base = extension < 0 ? name : name.substring(0, extension);
+
+        String counter = base.length() > RANDOM_SUFFIX_LENGTH
+            ? base.substring(0, base.length() - RANDOM_SUFFIX_LENGTH)
+            : "";
+        if (counter.isEmpty() || counter.length() > 18 || !counter.chars().allMatch(Character::isDigit)) {
+            return Long.MAX_VALUE;
+        }
+        return Long.parseLong(counter);
+    }
+
+    /**
+     * @param roots - folders holding session folders, or session folders themselves
+     * @return - every session folder found, a session folder holds a screenshots folder
+     */
+    public List<File> findSessions(File... roots) {
+        List<File> sessions = new ArrayList<>();
+
+        for (File root : roots) {
+            if (new File(root, getScreenshotsFolderName()).isDirectory()) {
+                sessions.add(root);
+                continue;
+            }
+
+            File[] children = root.listFiles(File::isDirectory);
+            if (children == null) {
+                logger.warn(String.format("Folder could not be read: '%s'", root.getAbsolutePath()));
+                continue;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                if (new File(child, getScreenshotsFolderName()).isDirectory()) {
+                    sessions.add(child);
+                }
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * @param session - session folder
+     * @return - absolute paths of the screenshots of the session in the order they were taken
+     */
+    public List<String> findScreenshots(File session) {
+        File[] screenshots = new File(session, getScreenshotsFolderName())
+            .listFiles(file -> file.isFile() && file.getName().toLowerCase().endsWith(".png"));
+
+        List<String> paths = new ArrayList<>();
+        if (screenshots == null) {
+            return paths;
+        }
+
+        Arrays.sort(screenshots, Comparator.comparingLong(GifBatchCreator::getCounter).thenComparing(File::getName));
+        for (File screenshot : screenshots) {
+            paths.add(screenshot.getAbsolutePath());
+        }
+        return paths;
+    }
+
+    /**
+     * Creates the GIF of every session found in the given folders, sessions finished by an earlier run are skipped
+     *
+     * @param roots - folders holding session folders, or session folders themselves
+     * @return - generated GIF of every processed session, null for the sessions that failed
+     */
+    public Map<File, File> createGifs(File... roots) {
+        Map<File, File> gifs = new LinkedHashMap<>();
+        Map<File, Future<File>> pending = new LinkedHashMap<>();
+        Map<File, Set<String>> completedSessions = new HashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(getThreads(), 1));
+        try {
+            for (File session : findSessions(roots)) {
+                // sessions of the same folder share their progress file, it is read once per batch
+                if (isResume() && completedSessions
+                    .computeIfAbsent(getProgressFile(session), this::readCompletedSessions)
+                    .contains(session.getName())) {
+                    logger.info(String.format("Skipping session already processed: '%s'", session.getAbsolutePath()));
+                    continue;
+                }
+                pending.put(session, executor.submit(() -> createGif(session)));
+            }
+
+            for (Map.Entry<File, Future<File>> entry : pending.entrySet()) {
+                try {
+                    gifs.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    logger.warn(String.format("Session could not be processed: '%s'", entry.getKey()));
+                    logger.trace(e);
+                    gifs.put(entry.getKey(), null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Batch was interrupted, it will resume from the last finished session");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info(String.format("Created %d GIFs", gifs.values().stream().filter(gif -> gif != null).count()));
+        return gifs;
+    }
+
+    /**
+     * Creates the GIF of a single session and records it in the progress file
+     *
+     * @param session - session folder
+     * @return - generated GIF {@link File}, null when the gif could not be generated
+     */
+    public File createGif(File session) {
+        GifScreenshotWorker worker = new GifScreenshotWorker(null, session.getName());
+        worker.setRootDir(session.getPath());
+        worker.setScreenshotsFolderName(getScreenshotsFolderName());
+        worker.setGeneratedGIFsFolderName(getGeneratedGIFsFolderName());
+        worker.setPaletteKey(getPaletteKey());
+        getWorkerConfiguration().accept(worker);
+
+        worker.getScreenshotsTaken().addAll(findScreenshots(session));
+
+        File gif = worker.createGif();
+        if (gif != null) {
+            markCompleted(session);
+        }
+        return gif;
+    }
+
+    /**
+     * @param progressFile - progress file of a folder holding sessions
+     * @return - names of the sessions of the folder that were already processed
+     */
+    Set<String> readCompletedSessions(File progressFile) {
+        if (!progressFile.exists()) {
+            return new HashSet<>();
+        }
+
+        try {
+            return new HashSet<>(FileUtils.readLines(progressFile, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn(String.format("Progress could not be read from: '%s'", progressFile.getAbsolutePath()));
+            logger.trace(e);
+        }
+        return new HashSet<>();
+    }
+
+    private synchronized void markCompleted(File session) {
+        File progressFile = getProgressFile(session);
+        try {
+            FileUtils.writeStringToFile(progressFile, session.getName() + System.lineSeparator(),
+                StandardCharsets.UTF_8, true);
+        } catch (IOException e) {
+            logger.warn(String.format("Progress could not be saved at: '%s'", progressFile.getAbsolutePath()));
+            logger.trace(e);
+        }
+    }
+
+    /**
+     * @param session - session folder
+     * @return - progress file shared by the session and the sessions next to it
+     */
+    public File getProgressFile(File session) {
+        return new File(session.getAbsoluteFile().getParentFile(), PROGRESS_FILE_NAME);
+    }
+
+    /**
+     * Defaults to the number of processors
+     *
+     * @return number of sessions encoded in parallel
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of sessions encoded in parallel
+     *
+     * @param threads - number of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Defaults to "screenshots"
+     *
+     * @return - screenshots folder of a session
+     */
+    public String getScreenshotsFolderName() {
+        return screenshotsFolderName;
+    }
+
+    /**
+     * Set the screenshots folder of a session, same as the one used by the workers that took the screenshots
+     *
+     * @param screenshotsFolderName - folder name relative to the session folder
+     */
+    public void setScreenshotsFolderName(String screenshotsFolderName) {
+        this.screenshotsFolderName = screenshotsFolderName;
+    }
+
+    /**
+     * Defaults to "generatedGifs"
+     *
+     * @return - generated GIFs folder of a session
+     */
+    public String getGeneratedGIFsFolderName() {
+        return generatedGIFsFolderName;
+    }
+
+    /**
+     * Set the folder of a session where the GIF is written
+     *
+     * @param generatedGIFsFolderName - folder name relative to the session folder
+     */
+    public void setGeneratedGIFsFolderName(String generatedGIFsFolderName) {
+        this.generatedGIFsFolderName = generatedGIFsFolderName;
+    }
+
+    /**
+     * Defaults to true
+     *
+     * @return true/false weather sessions finished by an earlier run are skipped
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Set weather sessions finished by an earlier run are skipped
+     *
+     * @param resume true / false
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Defaults to null, the sessions do not know the application they captured so they skip the palette cache
+     *
+     * @return key of the palette used when the workers have a palette cache
+     */
+    public String getPaletteKey() {
+        return paletteKey;
+    }
+
+    /**
+     * Set the key of the palette shared by every session, only used with a palette cache,
+     * the worker configuration can still set its own key
+     *
+     * @param paletteKey - application name, null to skip the palette cache
+     */
+    public void setPaletteKey(String paletteKey) {
+        this.paletteKey = paletteKey;
+    }
+
+    /**
+     * @return - settings applied to the worker of every session
+     */
+    public Consumer<GifScreenshotWorker> getWorkerConfiguration() {
+        return workerConfiguration;
+    }
+
+    /**
+     * Set the settings applied to the worker of every session, such as delay, loop, budget or palette cache
+     *
+     * @param workerConfiguration - callback receiving the worker before the GIF is created
+     */
+    public void setWorkerConfiguration(Consumer<GifScreenshotWorker> workerConfiguration) {
+        this.workerConfiguration = workerConfiguration;
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the default {@link Executor} used by the asynchronous API of {@link GifWebDriver}.
+ * <p>
+ * On Java 8 this is a shared pool of daemon platform threads, the multi-release jar replaces it
+ * with virtual threads when running on Java 21 or newer
+ */
+public final class GifExecutors {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "gif-webdriver-" + THREAD_COUNTER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private GifExecutors() {
+    }
+
+    /**
+     * @return - shared executor used for captures and GIF encoding when none was set explicitly
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * @return - true when the default executor runs tasks on virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import java.io.File;
+
+/**
+ * A screenshot scheduled to be written in a GIF together with the time it stays on screen
+ */
+class GifFrame {
+
+    private final String path;
+
+    private final long size;
+
+    private final int[] thumbnail;
+
+    private final boolean keyFrame;
+
+    private final int delay;
+
+    GifFrame(String path, boolean keyFrame, int delay) {
+        this(path, new File(path).length(), keyFrame, delay);
+    }
+
+    GifFrame(String path, long size, boolean keyFrame, int delay) {
+        this(path, size, null, keyFrame, delay);
+    }
+
+    GifFrame(String path, long size, int[] thumbnail, boolean keyFrame, int delay) {
+        this.path = path;
+        this.size = size;
+        this.thumbnail = thumbnail;
+        this.keyFrame = keyFrame;
+        this.delay = delay;
+    }
+
+    /**
+     * @return - absolute path of the screenshot on disk
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @return - size in bytes of the screenshot file, used to measure how much two frames differ without pixels
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * @return - RGB pixels of the downscaled screenshot, null when the frames are compared by file size
+     */
+    int[] getThumbnail() {
+        return thumbnail;
+    }
+
+    /**
+     * @return - true when the frame was taken around a navigation or a failure and should be kept
+     */
+    boolean isKeyFrame() {
+        return keyFrame;
+    }
+
+    /**
+     * @return - time in milliseconds the frame stays on screen
+     */
+    int getDelay() {
+        return delay;
+    }
+
+    GifFrame withDelay(int delay) {
+        return new GifFrame(path, size, thumbnail, keyFrame, delay);
+    }
+}
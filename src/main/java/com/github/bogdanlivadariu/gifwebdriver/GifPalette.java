@@ -0,0 +1,271 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Up to 256 colors shared by the frames of a GIF together with a lookup table that maps every RGB555 color
+ * to its nearest palette color, so converting a frame costs a table lookup per pixel
+ */
+public class GifPalette {
+
+    public static final int MAX_COLORS = 256;
+
+    private static final int RGB555_COLORS = 1 << 15;
+
+    private static final int[] BAYER_MATRIX = {0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5};
+
+    private static final int ORDERED_DITHERING_SPREAD = 32;
+
+    private final int[] colors;
+
+    private final byte[] lookupTable = new byte[RGB555_COLORS];
+
+    private final IndexColorModel colorModel;
+
+    /**
+     * @param colors - RGB colors of the palette, at most {@link #MAX_COLORS}
+     */
+    public GifPalette(int[] colors) {
+        if (colors.length == 0 || colors.length > MAX_COLORS) {
+            throw new IllegalArgumentException("A GIF palette holds between 1 and 256 colors, got " + colors.length);
+        }
+        this.colors = colors.clone();
+
+        // GIF color tables hold a power of two entries
+        int size = 2;
+        while (size < colors.length) {
+            size <<= 1;
+        }
+        byte[] reds = new byte[size];
+        byte[] greens = new byte[size];
+        byte[] blues = new byte[size];
+        for (int i = 0; i < colors.length; i++) {
+            reds[i] = (byte) (colors[i] >> 16);
+            greens[i] = (byte) (colors[i] >> 8);
+            blues[i] = (byte) colors[i];
+        }
+        colorModel = new IndexColorModel(8, size, reds, greens, blues);
+
+        for (int rgb555 = 0; rgb555 < RGB555_COLORS; rgb555++) {
+            lookupTable[rgb555] = (byte) nearest(expand(rgb555 >> 10), expand(rgb555 >> 5), expand(rgb555));
+        }
+    }
+
+    /**
+     * Builds the palette with a median cut over the RGB555 histogram of the sample frames,
+     * pages that use less than 256 distinct colors keep them exactly
+     *
+     * @param samples - frames the palette is built from
+     * @return - palette fitting the sample frames
+     */
+    public static GifPalette build(List<BufferedImage> samples) {
+        long[] counts = new long[RGB555_COLORS];
+        long[][] sums = new long[RGB555_COLORS][3];
+
+        for (BufferedImage sample : samples) {
+            int width = sample.getWidth();
+            int[] row = new int[width];
+            for (int y = 0; y < sample.getHeight(); y++) {
+                sample.getRGB(0, y, width, 1, row, 0, width);
+                for (int rgb : row) {
+                    int bin = toRgb555(rgb);
+                    counts[bin]++;
+                    sums[bin][0] += (rgb >> 16) & 0xFF;
+                    sums[bin][1] += (rgb >> 8) & 0xFF;
+                    sums[bin][2] += rgb & 0xFF;
+                }
+            }
+        }
+
+        List<Integer> bins = new ArrayList<>();
+        for (int bin = 0; bin < RGB555_COLORS; bin++) {
+            if (counts[bin] > 0) {
+                bins.add(bin);
+            }
+        }
+        if (bins.isEmpty()) {
+            return new GifPalette(new int[] {0});
+        }
+
+        List<List<Integer>> boxes = new ArrayList<>();
+        boxes.add(bins);
+        while (boxes.size() < MAX_COLORS) {
+            List<Integer> largest = null;
+            long largestCount = 0;
+            for (List<Integer> box : boxes) {
+                long count = box.stream().mapToLong(bin -> counts[bin]).sum();
+                if (box.size() > 1 && count > largestCount) {
+                    largest = box;
+                    largestCount = count;
+                }
+            }
+            if (largest == null) {
+                break;
+            }
+            boxes.remove(largest);
+            boxes.addAll(split(largest, counts, largestCount));
+        }
+
+        int[] colors = new int[boxes.size()];
+        for (int i = 0; i < boxes.size(); i++) {
+            long count = 0;
+            long[] sum = new long[3];
+            for (int bin : boxes.get(i)) {
+                count += counts[bin];
+                for (int channel = 0; channel < 3; channel++) {
+                    sum[channel] += sums[bin][channel];
+                }
+            }
+            colors[i] = (int) (sum[0] / count) << 16 | (int) (sum[1] / count) << 8 | (int) (sum[2] / count);
+        }
+        return new GifPalette(colors);
+    }
+
+    /**
+     * Splits the box along its widest channel at the pixel median
+     */
+    private static List<List<Integer>> split(List<Integer> box, long[] counts, long boxCount) {
+        int widestShift = 0;
+        int widestRange = -1;
+        for (int shift : new int[] {10, 5, 0}) {
+            int min = box.stream().mapToInt(bin -> (bin >> shift) & 0x1F).min().getAsInt();
+            int max = box.stream().mapToInt(bin -> (bin >> shift) & 0x1F).max().getAsInt();
+            if (max - min > widestRange) {
+                widestRange = max - min;
+                widestShift = shift;
+            }
+        }
+
+        int shift = widestShift;
+        box.sort(Comparator.comparingInt(bin -> (bin >> shift) & 0x1F));
+
+        int median = 1;
+        long count = counts[box.get(0)];
+        while (median < box.size() - 1 && count + counts[box.get(median)] <= boxCount / 2) {
+            count += counts[box.get(median++)];
+        }
+        return Arrays.asList(new ArrayList<>(box.subList(0, median)), new ArrayList<>(box.subList(median, box.size())));
+    }
+
+    private static int toRgb555(int rgb) {
+        return ((rgb >> 9) & 0x7C00) | ((rgb >> 6) & 0x3E0) | ((rgb >> 3) & 0x1F);
+    }
+
+    private static int expand(int channel) {
+        channel &= 0x1F;
+        return (channel << 3) | (channel >> 2);
+    }
+
+    private static int clamp(int channel) {
+        return channel < 0 ? 0 : channel > 255 ? 255 : channel;
+    }
+
+    private int nearest(int red, int green, int blue) {
+        int nearest = 0;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < colors.length; i++) {
+            int redDistance = ((colors[i] >> 16) & 0xFF) - red;
+            int greenDistance = ((colors[i] >> 8) & 0xFF) - green;
+            int blueDistance = (colors[i] & 0xFF) - blue;
+            int distance = redDistance * redDistance + greenDistance * greenDistance + blueDistance * blueDistance;
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private int lookup(int red, int green, int blue) {
+        return lookupTable[(clamp(red) >> 3) << 10 | (clamp(green) >> 3) << 5 | clamp(blue) >> 3] & 0xFF;
+    }
+
+    /**
+     * Converts the frame to an indexed image using this palette
+     *
+     * @param image     - frame to convert
+     * @param dithering - how colors missing from the palette are approximated
+     * @return - indexed image ready to be written without further color reduction
+     */
+    public BufferedImage apply(BufferedImage image, Dithering dithering) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+        byte[] pixels = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+
+        int[] row = new int[width];
+        int[][] errors = new int[3][width + 2];
+        int[][] nextErrors = new int[3][width + 2];
+
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+
+            for (int x = 0; x < width; x++) {
+                int red = (row[x] >> 16) & 0xFF;
+                int green = (row[x] >> 8) & 0xFF;
+                int blue = row[x] & 0xFF;
+
+                if (dithering == Dithering.ORDERED) {
+                    int offset = (BAYER_MATRIX[(y & 3) << 2 | (x & 3)] - 8) * ORDERED_DITHERING_SPREAD / 16;
+                    red += offset;
+                    green += offset;
+                    blue += offset;
+                } else if (dithering == Dithering.ERROR_DIFFUSION) {
+                    red += errors[0][x + 1] / 16;
+                    green += errors[1][x + 1] / 16;
+                    blue += errors[2][x + 1] / 16;
+                }
+
+                int index = lookup(red, green, blue);
+                pixels[y * width + x] = (byte) index;
+
+                if (dithering == Dithering.ERROR_DIFFUSION) {
+                    diffuse(errors[0], nextErrors[0], x, clamp(red) - ((colors[index] >> 16) & 0xFF));
+                    diffuse(errors[1], nextErrors[1], x, clamp(green) - ((colors[index] >> 8) & 0xFF));
+                    diffuse(errors[2], nextErrors[2], x, clamp(blue) - (colors[index] & 0xFF));
+                }
+            }
+
+            if (dithering == Dithering.ERROR_DIFFUSION) {
+                int[][] swap = errors;
+                errors = nextErrors;
+                nextErrors = swap;
+                for (int[] channel : nextErrors) {
+                    Arrays.fill(channel, 0);
+                }
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Spreads the error with the Floyd-Steinberg weights, stored in sixteenths and shifted by one column
+     */
+    private static void diffuse(int[] errors, int[] nextErrors, int x, int error) {
+        errors[x + 2] += error * 7;
+        nextErrors[x] += error * 3;
+        nextErrors[x + 1] += error * 5;
+        nextErrors[x + 2] += error;
+    }
+
+    /**
+     * @return - RGB colors of the palette
+     */
+    public int[] getColors() {
+        return colors.clone();
+    }
+
+    /**
+     * @return - color model of the indexed frames produced by {@link #apply(BufferedImage, Dithering)}
+     */
+    public IndexColorModel getColorModel() {
+        return colorModel;
+    }
+}
@@ -9,25 +9,67 @@ import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.stream.FileImageOutputStream;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Worker responsible of taking,storing screenshots and generating the GIF based on tem
  */
 public class GifScreenshotWorker {
 
+    /**
+     * Shortest delay honoured by browsers, anything below is usually played at 100ms
+     */
+    private static final int MIN_FRAME_DELAY_IN_MILLISECONDS = 20;
+
+    /**
+     * Longest delay a GIF frame can store, 65535 hundredths of a second
+     */
+    private static final int MAX_FRAME_DELAY_IN_MILLISECONDS = 655350;
+
+    /**
+     * Number of screenshots a cached palette is built from
+     */
+    private static final int PALETTE_SAMPLE_FRAMES = 3;
+
     private final List<String> screenshotsTaken = new ArrayList<>();
 
+    private final Set<String> keyFrames = new HashSet<>();
+
     private final Logger logger = LogManager.getLogger(GifScreenshotWorker.class);
 
+    /**
+     * Guards the screenshots of the worker, a lock rather than a monitor so virtual threads blocked on the browser
+     * call do not pin their carrier thread
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Keeps the segments encoded in parallel from interleaving their lines in the segment index
+     */
+    private final ReentrantLock segmentIndexLock = new ReentrantLock();
+
+    private final List<CompletableFuture<Void>> pendingSegments = new ArrayList<>();
+
     private final WebDriver driver;
 
-    private final String uniqueName = RandomStringUtils.randomAlphabetic(10);
+    private final String uniqueName;
 
     private final String separator = File.separator;
 
@@ -43,8 +85,54 @@ public class GifScreenshotWorker {
 
     private int counter = 0;
 
+    private boolean nextScreenshotIsKeyFrame = false;
+
+    private int maxFrames = 0;
+
+    private int maxTotalDurationInMilliseconds = 0;
+
+    private long maxOutputBytes = 0;
+
+    private FrameDifference frameDifference = FrameDifference.PIXELS;
+
+    private SegmentationMode segmentationMode = SegmentationMode.NONE;
+
+    private int framesPerSegment = 100;
+
+    private long segmentWindowInMilliseconds = 60000;
+
+    private int segmentCounter = 0;
+
+    private Executor executor = GifExecutors.defaultExecutor();
+
+    private String currentTestName;
+
+    private String currentUrl;
+
+    private String segmentTestName;
+
+    private String segmentUrl;
+
+    private long segmentStartedAt;
+
+    private long lastScreenshotAt;
+
+    private PaletteCache paletteCache;
+
+    private String paletteKey;
+
+    private Dithering dithering = Dithering.NONE;
+
     public GifScreenshotWorker(WebDriver driver) {
+        this(driver, RandomStringUtils.randomAlphabetic(10));
+    }
+
+    /**
+     * Used to pick up the screenshots of an existing worker, the unique name is the name of its root folder
+     */
+    GifScreenshotWorker(WebDriver driver, String uniqueName) {
         this.driver = driver;
+        this.uniqueName = uniqueName;
 
         setRootDir(String.format("gifScreenshotWorker%s%s", separator, getUniqueName()));
         setScreenshotsFolderName("screenshots");
@@ -54,6 +142,7 @@ public class GifScreenshotWorker {
     public GifScreenshotWorker(WebDriver driver, String rootDir, String screenshotsFolder,
         String generatedGIFsFolderName, boolean loopContinuously) {
         this.driver = driver;
+        this.uniqueName = RandomStringUtils.randomAlphabetic(10);
         this.loopContinuously = loopContinuously;
 
         setRootDir(rootDir + separator + getUniqueName());
@@ -69,7 +158,14 @@ public class GifScreenshotWorker {
      * Takes a screenshot of the current page
      */
     public void takeScreenshot() {
+        lock.lock();
         try {
+            long now = System.currentTimeMillis();
+            if (getSegmentationMode() == SegmentationMode.TIME_WINDOW && !getScreenshotsTaken().isEmpty()
+                && now - segmentStartedAt >= getSegmentWindowInMilliseconds()) {
+                encodeSegmentAsync();
+            }
+
             byte[] screenShotData = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
 
             File screenshotFile =
@@ -79,63 +175,418 @@ public class GifScreenshotWorker {
 
             logger.info(String.format("Screenshot taken at: '%s'", screenshotFile.getAbsolutePath()));
 
+            if (getScreenshotsTaken().isEmpty()) {
+                segmentStartedAt = now;
+                segmentTestName = currentTestName;
+                segmentUrl = currentUrl;
+            }
+            lastScreenshotAt = now;
+
             getScreenshotsTaken().add(screenshotFile.getAbsolutePath());
+
+            if (nextScreenshotIsKeyFrame) {
+                keyFrames.add(screenshotFile.getAbsolutePath());
+                nextScreenshotIsKeyFrame = false;
+            }
+
+            if (getSegmentationMode() == SegmentationMode.FRAME_COUNT
+                && getScreenshotsTaken().size() >= getFramesPerSegment()) {
+                encodeSegmentAsync();
+            }
         } catch (Throwable e) {
             logger.warn("Screenshot could not be taken or saved");
             logger.trace(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the last screenshot taken and the next one as key frames, used around navigation and failures.
+     * Key frames are the last ones to be dropped when the GIF has to fit the frame, duration or size budget
+     */
+    public void markKeyFrame() {
+        lock.lock();
+        try {
+            if (!getScreenshotsTaken().isEmpty()) {
+                keyFrames.add(getScreenshotsTaken().get(getScreenshotsTaken().size() - 1));
+            }
+            nextScreenshotIsKeyFrame = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the name of the test being executed, it is written in the segment index.
+     * Closes the current GIF when segmenting by {@link SegmentationMode#TEST_METHOD}
+     *
+     * @param testName - name of the test that starts
+     */
+    public void startTest(String testName) {
+        lock.lock();
+        try {
+            if (getSegmentationMode() == SegmentationMode.TEST_METHOD) {
+                encodeSegmentAsync();
+            }
+            currentTestName = testName;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the URL the driver navigated to, it is written in the segment index.
+     * Closes the current GIF when segmenting by {@link SegmentationMode#URL_CHANGE} and the URL changed
+     *
+     * @param url - URL the driver navigated to
+     */
+    public void navigatedTo(String url) {
+        lock.lock();
+        try {
+            if (getSegmentationMode() == SegmentationMode.URL_CHANGE && url != null && !url.equals(currentUrl)) {
+                encodeSegmentAsync();
+            }
+            currentUrl = url;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Creates the GIF and writes it on the disk
+     * Creates the GIF and writes it on the disk, the screenshots are handed over to the GIF before it is encoded
+     * so screenshots taken meanwhile go to the next one.
+     * When segmenting, waits for the segments closed earlier, then closes the current segment and encodes it
      *
      * @return - generated GIF {@link File}, null when the gif could not be generated due to lack of screenshots
      */
     public File createGif() {
-        if (getScreenshotsTaken().isEmpty()) {
+        if (getSegmentationMode() != SegmentationMode.NONE) {
+            return createSegment();
+        }
+
+        Segment screenshots;
+
+        lock.lock();
+        try {
+            if (getScreenshotsTaken().isEmpty()) {
+                logger.info("There are no screenshots to process");
+                return null;
+            }
+
+            // the encoding runs outside of the lock so captures are not held up, and
+            // we don't want to have same images in a new gif :)
+            screenshots = snapshot();
+            getScreenshotsTaken().clear();
+            keyFrames.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            return writeGif(screenshots, getGeneratedGIFsFolderName() + uniqueName + ".gif");
+        } catch (Throwable e) {
+            logger.warn("Gif could not be created or saved");
+            logger.trace(e);
+        }
+        return null;
+    }
+
+    private File createSegment() {
+        List<CompletableFuture<Void>> pending;
+        Segment segment;
+
+        lock.lock();
+        try {
+            pending = new ArrayList<>(pendingSegments);
+            pendingSegments.clear();
+            segment = closeSegment();
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+
+        if (segment == null) {
             logger.info("There are no screenshots to process");
             return null;
         }
+        return encodeSegment(segment);
+    }
+
+    /**
+     * Closes the current segment and encodes it on the executor so the test thread only pays for the capture
+     */
+    private void encodeSegmentAsync() {
+        Segment segment = closeSegment();
+        if (segment == null) {
+            return;
+        }
+
+        pendingSegments.removeIf(CompletableFuture::isDone);
+        pendingSegments.add(CompletableFuture.runAsync(() -> encodeSegment(segment), getExecutor()));
+    }
+
+    /**
+     * Hands the screenshots of the current segment over to a {@link Segment} and starts a new one, must be
+     * called while holding the lock
+     *
+     * @return - the closed segment, null when there are no screenshots
+     */
+    private Segment closeSegment() {
+        if (getScreenshotsTaken().isEmpty()) {
+            return null;
+        }
+
+        Segment segment = snapshot();
+        getScreenshotsTaken().clear();
+        keyFrames.clear();
+        segmentCounter++;
+        return segment;
+    }
+
+    private Segment snapshot() {
+        return new Segment(
+            segmentCounter,
+            new ArrayList<>(getScreenshotsTaken()),
+            new HashSet<>(keyFrames),
+            segmentTestName,
+            segmentUrl,
+            segmentStartedAt,
+            lastScreenshotAt);
+    }
 
+    /**
+     * Writes the segment GIF and its index entry, a segment that fails is logged and dropped so the next
+     * segments do not carry its screenshots
+     *
+     * @return - generated GIF {@link File}, null when the segment was dropped
+     */
+    private File encodeSegment(Segment segment) {
+        File outputFile = new File(
+            getGeneratedGIFsFolderName() + String.format("%s-%04d", uniqueName, segment.number) + ".gif");
         try {
-            BufferedImage firstImage = ImageIO.read(new File(getScreenshotsTaken().get(0)));
+            writeGif(segment, outputFile.getPath());
+            writeSegmentIndexEntry(segment, outputFile);
+            return outputFile;
+        } catch (Throwable e) {
+            logger.warn(String.format("Segment %d could not be created or saved, its %d screenshots are dropped",
+                segment.number, segment.screenshots.size()));
+            logger.trace(e);
+            FileUtils.deleteQuietly(outputFile);
+            return null;
+        }
+    }
+
+    private File writeGif(Segment segment, String outputFileName) throws IOException {
+        File outputFile = new File(outputFileName);
+
+        if (!outputFile.exists()) {
+            outputFile.getParentFile().mkdirs();
+            outputFile.createNewFile();
+        }
+
+        writeGif(segment, outputFile);
+
+        logger.info(String.format("Gif created at: '%s'", outputFile.getAbsolutePath()));
+        return outputFile;
+    }
+
+    private void writeGif(Segment segment, File outputFile) throws IOException {
+        BufferedImage firstImage = ImageIO.read(new File(segment.screenshots.get(0)));
+        GifPalette palette = getPalette(segment, firstImage);
+        BufferedImage firstFrame = toFrameImage(firstImage, palette);
+
+        ImageOutputStream output =
+            new FileImageOutputStream(outputFile);
+
+        Giffer gif = new Giffer(
+            output,
+            palette == null
+                ? ImageTypeSpecifier.createFromBufferedImageType(firstImage.getType())
+                : new ImageTypeSpecifier(firstFrame),
+            getTimeBetweenFramesInMilliseconds(),
+            isLoopContinuously());
+
+        int frameLimit = getFrameLimit(firstFrame);
+        boolean comparePixels = getFrameDifference() == FrameDifference.PIXELS
+            && frameLimit > 0 && segment.screenshots.size() > frameLimit;
+
+        List<GifFrame> frames = new ArrayList<>();
+        for (String screenshot : segment.screenshots) {
+            File screenshotFile = new File(screenshot);
+            frames.add(new GifFrame(
+                screenshot,
+                screenshotFile.length(),
+                comparePixels ? getThumbnail(screenshotFile) : null,
+                segment.keyFrames.contains(screenshot),
+                getTimeBetweenFramesInMilliseconds()));
+        }
+
+        frames = FrameDecimator.decimate(frames, frameLimit);
+        double timeScale = getTimeScale(frames);
+
+        for (GifFrame frame : frames) {
+            BufferedImage nextImage = ImageIO.read(new File(frame.getPath()));
+
+            gif.writeToSequence(toFrameImage(nextImage, palette), scaleDelay(frame.getDelay(), timeScale));
+        }
+
+        gif.close();
+        output.close();
+    }
+
+    /**
+     * @return - cached palette of the application, null when no palette cache is used or no key is known
+     */
+    private GifPalette getPalette(Segment segment, BufferedImage firstImage) {
+        if (getPaletteCache() == null) {
+            return null;
+        }
 
-            File outputFile = new File(getGeneratedGIFsFolderName() + uniqueName + ".gif");
+        String key = getPaletteKeyOrDefault(segment);
+        if (key == null) {
+            logger.info("No palette key set and no URL visited, the palette cache is skipped");
+            return null;
+        }
 
-            if (!outputFile.exists()) {
-                outputFile.getParentFile().mkdirs();
-                outputFile.createNewFile();
+        return getPaletteCache().getPalette(key, () -> {
+            List<BufferedImage> samples = new ArrayList<>();
+            samples.add(firstImage);
+            for (int i = 1; i < Math.min(segment.screenshots.size(), PALETTE_SAMPLE_FRAMES); i++) {
+                try {
+                    samples.add(ImageIO.read(new File(segment.screenshots.get(i))));
+                } catch (IOException e) {
+                    logger.trace(e);
+                }
             }
+            return samples;
+        });
+    }
+
+    /**
+     * @return - downscaled pixels of the screenshot, null to compare it by file size when it can not be read
+     */
+    private int[] getThumbnail(File screenshot) {
+        try {
+            return FrameDecimator.thumbnail(screenshot);
+        } catch (IOException e) {
+            logger.warn(String.format("Screenshot '%s' could not be downscaled", screenshot.getAbsolutePath()));
+            logger.trace(e);
+            return null;
+        }
+    }
 
-            ImageOutputStream output =
-                new FileImageOutputStream(outputFile);
+    private BufferedImage toFrameImage(BufferedImage image, GifPalette palette) {
+        return palette == null ? image : palette.apply(image, getDithering());
+    }
 
-            Giffer gif = new Giffer(
-                output,
-                firstImage.getType(),
-                getTimeBetweenFramesInMilliseconds(),
-                isLoopContinuously());
+    /**
+     * @return - palette key set explicitly, the host of the current URL otherwise, null when neither is known
+     */
+    private String getPaletteKeyOrDefault(Segment segment) {
+        if (getPaletteKey() != null) {
+            return getPaletteKey();
+        }
+        if (segment.url != null) {
+            try {
+                String host = URI.create(segment.url).getHost();
+                if (host != null) {
+                    return host;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.trace(e);
+            }
+        }
+        return null;
+    }
 
-            for (int i = 1; i < getScreenshotsTaken().size(); i++) {
-                BufferedImage nextImage = ImageIO.read(new File(getScreenshotsTaken().get(i)));
+    /**
+     * Appends the closed segment to the index right away so it survives a crash later in the suite
+     */
+    private void writeSegmentIndexEntry(Segment segment, File segmentFile) throws IOException {
+        segmentIndexLock.lock();
+        try {
+            File indexFile = getSegmentIndexFile();
+            StringBuilder entry = new StringBuilder();
 
-                gif.writeToSequence(nextImage);
+            if (!indexFile.exists()) {
+                entry.append("segment\tfile\ttest\turl\tstart\tend\tscreenshots\n");
             }
+            entry.append(segment.number).append('\t')
+                .append(segmentFile.getName()).append('\t')
+                .append(toIndexValue(segment.testName)).append('\t')
+                .append(toIndexValue(segment.url)).append('\t')
+                .append(Instant.ofEpochMilli(segment.startedAt)).append('\t')
+                .append(Instant.ofEpochMilli(segment.endedAt)).append('\t')
+                .append(segment.screenshots.size()).append('\n');
+
+            FileUtils.writeStringToFile(indexFile, entry.toString(), StandardCharsets.UTF_8, true);
+        } finally {
+            segmentIndexLock.unlock();
+        }
+    }
+
+    private static String toIndexValue(String value) {
+        return value == null ? "" : value.replaceAll("[\\t\\r\\n]", " ");
+    }
+
+    /**
+     * @return - maximum number of frames the GIF can hold, the frames above it are decimated
+     */
+    private int getFrameLimit(BufferedImage sample) throws IOException {
+        int limit = Integer.MAX_VALUE;
 
+        if (getMaxFrames() > 0) {
+            limit = getMaxFrames();
+        }
+        if (getMaxTotalDurationInMilliseconds() > 0) {
+            // as many frames as fit the budget at their normal delay, the thinning absorbs the rest
+            int frameDelay = Math.max(getTimeBetweenFramesInMilliseconds(), MIN_FRAME_DELAY_IN_MILLISECONDS);
+            limit = Math.min(limit, Math.max(getMaxTotalDurationInMilliseconds() / frameDelay, 1));
+        }
+        if (getMaxOutputBytes() > 0) {
+            long frameBytes = Math.max(estimateFrameBytes(sample), 1);
+            limit = (int) Math.min(limit, Math.max(getMaxOutputBytes() / frameBytes, 1));
+        }
+        return limit == Integer.MAX_VALUE ? 0 : limit;
+    }
+
+    /**
+     * GIF frames are always stored in full, so encoding a single screenshot gives a good estimate for all of them
+     */
+    private long estimateFrameBytes(BufferedImage sample) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            Giffer gif = new Giffer(output, new ImageTypeSpecifier(sample),
+                getTimeBetweenFramesInMilliseconds(), false);
+            gif.writeToSequence(sample);
             gif.close();
-            output.close();
+        }
+        return bytes.size();
+    }
 
-            logger.info(String.format("Gif created at: '%s'", outputFile.getAbsolutePath()));
+    /**
+     * @param frames - frames left after the decimation, their delays hold the time of the dropped frames
+     * @return - factor applied to every delay so the GIF plays within the maximum total duration
+     */
+    private double getTimeScale(List<GifFrame> frames) {
+        long totalDuration = 0;
+        for (GifFrame frame : frames) {
+            totalDuration += frame.getDelay();
+        }
 
-            // we don't want to have same images in a new gif :)
-            getScreenshotsTaken().clear();
+        if (getMaxTotalDurationInMilliseconds() > 0 && totalDuration > getMaxTotalDurationInMilliseconds()) {
+            return (double) getMaxTotalDurationInMilliseconds() / totalDuration;
+        }
+        return 1;
+    }
 
-            return outputFile;
-        } catch (Throwable e) {
-            logger.warn("Gif could not be created or saved");
-            logger.trace(e);
+    private int scaleDelay(int delay, double timeScale) {
+        if (timeScale < 1) {
+            delay = Math.max((int) Math.round(delay * timeScale), MIN_FRAME_DELAY_IN_MILLISECONDS);
         }
-        return null;
+        return Math.min(delay, MAX_FRAME_DELAY_IN_MILLISECONDS);
     }
 
     /**
@@ -174,6 +625,220 @@ public class GifScreenshotWorker {
         this.loopContinuously = loopContinuously;
     }
 
+    /**
+     * Defaults to 0, no limit
+     *
+     * @return maximum number of frames of the generated GIF
+     */
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    /**
+     * Set the maximum number of frames of the generated GIF, frames that barely change are dropped first
+     * and their delay is merged into the previous frame
+     *
+     * @param maxFrames - number of frames, 0 for no limit
+     */
+    public void setMaxFrames(int maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Defaults to 0, no limit
+     *
+     * @return maximum time it takes the generated GIF to play once
+     */
+    public int getMaxTotalDurationInMilliseconds() {
+        return maxTotalDurationInMilliseconds;
+    }
+
+    /**
+     * Set the maximum time it takes the generated GIF to play once, longer GIFs are decimated down to the
+     * frames that fit at the normal delay, the delays merged from the dropped frames are then shortened to fit
+     *
+     * @param maxTotalDurationInMilliseconds - value in milliseconds, 0 for no limit
+     */
+    public void setMaxTotalDurationInMilliseconds(int maxTotalDurationInMilliseconds) {
+        this.maxTotalDurationInMilliseconds = maxTotalDurationInMilliseconds;
+    }
+
+    /**
+     * Defaults to 0, no limit
+     *
+     * @return approximate maximum size of the generated GIF
+     */
+    public long getMaxOutputBytes() {
+        return maxOutputBytes;
+    }
+
+    /**
+     * Set the approximate maximum size of the generated GIF, estimated from the encoded size of a single frame
+     *
+     * @param maxOutputBytes - value in bytes, 0 for no limit
+     */
+    public void setMaxOutputBytes(long maxOutputBytes) {
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    /**
+     * Defaults to {@link FrameDifference#PIXELS}
+     *
+     * @return how the change between screenshots is measured when frames are dropped to fit the budget
+     */
+    public FrameDifference getFrameDifference() {
+        return frameDifference;
+    }
+
+    /**
+     * Set how the change between screenshots is measured, the frames that change the least are dropped first
+     *
+     * @param frameDifference - {@link FrameDifference#FILE_SIZE} to skip decoding the screenshots twice
+     */
+    public void setFrameDifference(FrameDifference frameDifference) {
+        this.frameDifference = frameDifference;
+    }
+
+    /**
+     * Defaults to {@link SegmentationMode#NONE}
+     *
+     * @return when the current GIF is closed and a new one is started
+     */
+    public SegmentationMode getSegmentationMode() {
+        return segmentationMode;
+    }
+
+    /**
+     * Set when the current GIF is closed and a new one is started, every closed segment is encoded right away
+     * on the executor and listed in the segment index
+     *
+     * @param segmentationMode - how the screenshots are split in multiple GIFs
+     */
+    public void setSegmentationMode(SegmentationMode segmentationMode) {
+        this.segmentationMode = segmentationMode;
+    }
+
+    /**
+     * Defaults to 100
+     *
+     * @return number of screenshots of a segment when segmenting by {@link SegmentationMode#FRAME_COUNT}
+     */
+    public int getFramesPerSegment() {
+        return framesPerSegment;
+    }
+
+    /**
+     * Set the number of screenshots of a segment when segmenting by {@link SegmentationMode#FRAME_COUNT}
+     *
+     * @param framesPerSegment - number of screenshots
+     */
+    public void setFramesPerSegment(int framesPerSegment) {
+        this.framesPerSegment = framesPerSegment;
+    }
+
+    /**
+     * Defaults to 60000ms
+     *
+     * @return time covered by a segment when segmenting by {@link SegmentationMode#TIME_WINDOW}
+     */
+    public long getSegmentWindowInMilliseconds() {
+        return segmentWindowInMilliseconds;
+    }
+
+    /**
+     * Set the time covered by a segment when segmenting by {@link SegmentationMode#TIME_WINDOW}
+     *
+     * @param segmentWindowInMilliseconds - value in milliseconds
+     */
+    public void setSegmentWindowInMilliseconds(long segmentWindowInMilliseconds) {
+        this.segmentWindowInMilliseconds = segmentWindowInMilliseconds;
+    }
+
+    /**
+     * Defaults to {@link GifExecutors#defaultExecutor()}
+     *
+     * @return executor the closed segments are encoded on
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the executor the segments closed by the segmentation mode are encoded on, the test thread only takes
+     * the screenshots
+     *
+     * @param executor - executor running the segment encoding
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Tab separated file listing every segment with its test name, URL and start / end time
+     *
+     * @return - index file stored next to the generated GIFs
+     */
+    public File getSegmentIndexFile() {
+        return new File(getGeneratedGIFsFolderName() + uniqueName + "-segments.tsv");
+    }
+
+    /**
+     * Defaults to null, every GIF reduces its colors on its own
+     *
+     * @return cache holding the palettes reused across frames and sessions
+     */
+    public PaletteCache getPaletteCache() {
+        return paletteCache;
+    }
+
+    /**
+     * Set the cache holding the palettes reused across frames and sessions, for example
+     * {@link PaletteCache#getShared()}. The palette is built from the first screenshots of an application
+     * and every later frame is mapped to it through a lookup table
+     *
+     * @param paletteCache - cache to use, null to reduce the colors of every GIF on its own
+     */
+    public void setPaletteCache(PaletteCache paletteCache) {
+        this.paletteCache = paletteCache;
+    }
+
+    /**
+     * Defaults to null, the host of the current URL is used
+     *
+     * @return key of the cached palette, usually the application name
+     */
+    public String getPaletteKey() {
+        return paletteKey;
+    }
+
+    /**
+     * Set the key of the cached palette, sessions of the same application should share it
+     *
+     * @param paletteKey - application name, null to use the host of the current URL, GIFs without either do not
+     *                   use the palette cache
+     */
+    public void setPaletteKey(String paletteKey) {
+        this.paletteKey = paletteKey;
+    }
+
+    /**
+     * Defaults to {@link Dithering#NONE}
+     *
+     * @return how colors missing from the cached palette are approximated
+     */
+    public Dithering getDithering() {
+        return dithering;
+    }
+
+    /**
+     * Set how colors missing from the cached palette are approximated, only used with a palette cache
+     *
+     * @param dithering - dithering applied to every frame
+     */
+    public void setDithering(Dithering dithering) {
+        this.dithering = dithering;
+    }
+
     /**
      * @return - Unique name generated used to store every screenshot and GIF as an unique file
      */
@@ -233,5 +898,35 @@ public class GifScreenshotWorker {
     public void setGeneratedGIFsFolderName(String generatedGIFsFolderName) {
         this.generatedGIFsFolderName = getRootDir() + generatedGIFsFolderName + separator;
     }
-}
 
+    /**
+     * Screenshots of a closed GIF together with what is written about them in the segment index
+     */
+    private static final class Segment {
+
+        private final int number;
+
+        private final List<String> screenshots;
+
+        private final Set<String> keyFrames;
+
+        private final String testName;
+
+        private final String url;
+
+        private final long startedAt;
+
+        private final long endedAt;
+
+        private Segment(int number, List<String> screenshots, Set<String> keyFrames, String testName, String url,
+            long startedAt, long endedAt) {
+            this.number = number;
+            this.screenshots = screenshots;
+            this.keyFrames = keyFrames;
+            this.testName = testName;
+            this.url = url;
+            this.startedAt = startedAt;
+            this.endedAt = endedAt;
+        }
+    }
+}
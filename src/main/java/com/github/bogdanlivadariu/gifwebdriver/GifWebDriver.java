@@ -7,8 +7,12 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
 import org.openqa.selenium.support.events.EventFiringWebDriver;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Wrapper over the {@link WebDriver} that allows taking screenshots during test execution
@@ -19,6 +23,8 @@ public class GifWebDriver extends AbstractWebDriverEventListener implements WebD
 
     private final GifScreenshotWorker gifScreenshotWorker;
 
+    private Executor executor = GifExecutors.defaultExecutor();
+
     public GifWebDriver(WebDriver driver) {
         EventFiringWebDriver handle = new EventFiringWebDriver(driver);
         handle.register(this);
@@ -39,6 +45,19 @@ public class GifWebDriver extends AbstractWebDriverEventListener implements WebD
         super.beforeClickOn(element, driver);
     }
 
+    @Override
+    public void afterNavigateTo(String url, WebDriver driver) {
+        getGifScreenshotWorker().markKeyFrame();
+        getGifScreenshotWorker().navigatedTo(url);
+        super.afterNavigateTo(url, driver);
+    }
+
+    @Override
+    public void onException(Throwable throwable, WebDriver driver) {
+        getGifScreenshotWorker().markKeyFrame();
+        super.onException(throwable, driver);
+    }
+
     @Override
     public void get(String s) {
         driver.get(s);
@@ -82,6 +101,45 @@ public class GifWebDriver extends AbstractWebDriverEventListener implements WebD
         driver.quit();
     }
 
+    /**
+     * Takes a screenshot of the current page without blocking the caller
+     *
+     * @return - future completed once the screenshot was taken and stored on disk
+     */
+    public CompletableFuture<Void> takeScreenshotAsync() {
+        return CompletableFuture.runAsync(getGifScreenshotWorker()::takeScreenshot, getExecutor());
+    }
+
+    /**
+     * Creates the GIF without blocking the caller
+     *
+     * @return - future holding the generated GIF {@link File}, null when the gif could not be generated
+     */
+    public CompletableFuture<File> createGifAsync() {
+        return CompletableFuture.supplyAsync(getGifScreenshotWorker()::createGif, getExecutor());
+    }
+
+    /**
+     * Takes a last screenshot, quits the driver and then creates the GIF without blocking the caller.
+     * The browser is released before the encoding starts, the GIF is created even when quitting fails
+     *
+     * @return - future holding the generated GIF {@link File}, null when the gif could not be generated,
+     * completed exceptionally with the quit failure once the GIF was created
+     */
+    public CompletableFuture<File> quitAsync() {
+        return takeScreenshotAsync()
+            .thenRunAsync(driver::quit, getExecutor())
+            .handleAsync((ignored, quitFailure) -> {
+                File gif = getGifScreenshotWorker().createGif();
+                if (quitFailure != null) {
+                    throw quitFailure instanceof CompletionException
+                        ? (CompletionException) quitFailure
+                        : new CompletionException(quitFailure);
+                }
+                return gif;
+            }, getExecutor());
+    }
+
     @Override
     public Set<String> getWindowHandles() {
         return driver.getWindowHandles();
@@ -120,5 +178,23 @@ public class GifWebDriver extends AbstractWebDriverEventListener implements WebD
     public GifScreenshotWorker getGifScreenshotWorker() {
         return gifScreenshotWorker;
     }
+
+    /**
+     * Defaults to {@link GifExecutors#defaultExecutor()}, virtual threads on Java 21+
+     *
+     * @return executor used by the asynchronous API
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the executor used by the asynchronous API
+     *
+     * @param executor - executor running the screenshot and GIF tasks
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
 }
 
@@ -5,6 +5,7 @@ import javax.imageio.metadata.IIOInvalidTreeException;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.IndexColorModel;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 
@@ -16,15 +17,30 @@ public class Giffer {
 
     protected IIOMetadata metadata;
 
+    protected int delay;
+
     public Giffer(ImageOutputStream out, int imageType, int delay, boolean loop) throws IOException {
+        this(out, ImageTypeSpecifier.createFromBufferedImageType(imageType), delay, loop);
+    }
+
+    /**
+     * Images with an {@link IndexColorModel} are written with their own palette as local color table,
+     * so the writer does not reduce their colors again
+     */
+    public Giffer(ImageOutputStream out, ImageTypeSpecifier imageTypeSpecifier, int delay, boolean loop)
+        throws IOException {
         writer = ImageIO.getImageWritersBySuffix("gif").next();
         params = writer.getDefaultWriteParam();
 
-        ImageTypeSpecifier imageTypeSpecifier = ImageTypeSpecifier.createFromBufferedImageType(imageType);
         metadata = writer.getDefaultImageMetadata(imageTypeSpecifier, params);
 
+        this.delay = delay;
         configureRootMetadata(delay, loop);
 
+        if (imageTypeSpecifier.getColorModel() instanceof IndexColorModel) {
+            configureColorTable((IndexColorModel) imageTypeSpecifier.getColorModel());
+        }
+
         writer.setOutput(out);
         writer.prepareWriteSequence(null);
     }
@@ -67,10 +83,51 @@ public class Giffer {
         metadata.setFromTree(metaFormatName, root);
     }
 
+    private void configureColorTable(IndexColorModel colorModel) throws IIOInvalidTreeException {
+        String metaFormatName = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(metaFormatName);
+
+        // the default metadata comes with a generic color table, it is replaced by the palette of the image
+        IIOMetadataNode colorTableNode = getNode(root, "LocalColorTable");
+        while (colorTableNode.hasChildNodes()) {
+            colorTableNode.removeChild(colorTableNode.getFirstChild());
+        }
+        colorTableNode.setAttribute("sizeOfLocalColorTable", Integer.toString(colorModel.getMapSize()));
+        colorTableNode.setAttribute("sortFlag", "FALSE");
+
+        for (int i = 0; i < colorModel.getMapSize(); i++) {
+            IIOMetadataNode entry = new IIOMetadataNode("ColorTableEntry");
+            entry.setAttribute("index", Integer.toString(i));
+            entry.setAttribute("red", Integer.toString(colorModel.getRed(i)));
+            entry.setAttribute("green", Integer.toString(colorModel.getGreen(i)));
+            entry.setAttribute("blue", Integer.toString(colorModel.getBlue(i)));
+            colorTableNode.appendChild(entry);
+        }
+        metadata.setFromTree(metaFormatName, root);
+    }
+
     public void writeToSequence(RenderedImage img) throws IOException {
         writer.writeToSequence(new IIOImage(img, null, metadata), params);
     }
 
+    /**
+     * Writes a frame that stays on screen for the given delay instead of the one set at construction
+     *
+     * @param img   - frame to write
+     * @param delay - value in milliseconds, GIFs store it with a precision of 10ms
+     * @throws IOException when the frame could not be written
+     */
+    public void writeToSequence(RenderedImage img, int delay) throws IOException {
+        if (delay != this.delay) {
+            String metaFormatName = metadata.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(metaFormatName);
+            getNode(root, "GraphicControlExtension").setAttribute("delayTime", Integer.toString(delay / 10));
+            metadata.setFromTree(metaFormatName, root);
+            this.delay = delay;
+        }
+        writeToSequence(img);
+    }
+
     public void close() throws IOException {
         writer.endWriteSequence();
     }
@@ -0,0 +1,152 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the {@link GifPalette} of every application so color reduction is only paid for the first frames,
+ * the palettes can be persisted in a folder and reused by later runs
+ */
+public class PaletteCache {
+
+    private static final PaletteCache SHARED = new PaletteCache();
+
+    private final Logger logger = LogManager.getLogger(PaletteCache.class);
+
+    /**
+     * Futures rather than palettes so the palette is read or built outside of the map, the other sessions
+     * asking for the same key wait on the future instead of a bin lock of the map
+     */
+    private final Map<String, CompletableFuture<GifPalette>> palettes = new ConcurrentHashMap<>();
+
+    private final File directory;
+
+    /**
+     * Cache living in memory only
+     */
+    public PaletteCache() {
+        this(null);
+    }
+
+    /**
+     * @param directory - folder where palettes are read from and written to, null to keep them in memory only
+     */
+    public PaletteCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return - in memory cache shared by every {@link GifScreenshotWorker} of the JVM
+     */
+    public static PaletteCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @param key     - application name or URL host the palette belongs to
+     * @param samples - frames the palette is built from when it is neither cached nor persisted
+     * @return - palette of the given key, built once even when several sessions ask for it at the same time
+     */
+    public GifPalette getPalette(String key, Supplier<List<BufferedImage>> samples) {
+        CompletableFuture<GifPalette> palette = palettes.get(key);
+        if (palette == null) {
+            CompletableFuture<GifPalette> building = new CompletableFuture<>();
+            palette = palettes.putIfAbsent(key, building);
+
+            if (palette == null) {
+                palette = building;
+                try {
+                    building.complete(loadOrBuild(key, samples));
+                } catch (Throwable e) {
+                    // a later session can try again with its own screenshots
+                    palettes.remove(key, building);
+                    building.completeExceptionally(e);
+                }
+            }
+        }
+        return palette.join();
+    }
+
+    /**
+     * Forgets every palette kept in memory, persisted palettes are kept
+     */
+    public void clear() {
+        palettes.clear();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @param key - application name or URL host
+     * @return - file holding the palette of the given key, null when the cache is not persisted
+     */
+    public File getPaletteFile(String key) {
+        if (directory == null) {
+            return null;
+        }
+        return new File(directory, key.replaceAll("[^A-Za-z0-9._-]", "_") + ".palette");
+    }
+
+    private GifPalette loadOrBuild(String key, Supplier<List<BufferedImage>> samples) {
+        GifPalette palette = load(key);
+        if (palette == null) {
+            palette = GifPalette.build(samples.get());
+            save(key, palette);
+        }
+        return palette;
+    }
+
+    private GifPalette load(String key) {
+        File file = getPaletteFile(key);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try {
+            byte[] data = FileUtils.readFileToByteArray(file);
+            int[] colors = new int[data.length / 3];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = (data[i * 3] & 0xFF) << 16 | (data[i * 3 + 1] & 0xFF) << 8 | data[i * 3 + 2] & 0xFF;
+            }
+            return new GifPalette(colors);
+        } catch (Throwable e) {
+            logger.warn(String.format("Palette could not be read from: '%s'", file.getAbsolutePath()));
+            logger.trace(e);
+        }
+        return null;
+    }
+
+    private void save(String key, GifPalette palette) {
+        File file = getPaletteFile(key);
+        if (file == null) {
+            return;
+        }
+
+        int[] colors = palette.getColors();
+        byte[] data = new byte[colors.length * 3];
+        for (int i = 0; i < colors.length; i++) {
+            data[i * 3] = (byte) (colors[i] >> 16);
+            data[i * 3 + 1] = (byte) (colors[i] >> 8);
+            data[i * 3 + 2] = (byte) colors[i];
+        }
+
+        try {
+            FileUtils.writeByteArrayToFile(file, data);
+        } catch (IOException e) {
+            logger.warn(String.format("Palette could not be saved at: '%s'", file.getAbsolutePath()));
+            logger.trace(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+/**
+ * Decides when {@link GifScreenshotWorker} closes the current GIF and starts a new one
+ */
+public enum SegmentationMode {
+
+    /**
+     * A single GIF is created every time {@link GifScreenshotWorker#createGif()} is called
+     */
+    NONE,
+
+    /**
+     * A new GIF is started by {@link GifScreenshotWorker#startTest(String)}
+     */
+    TEST_METHOD,
+
+    /**
+     * A new GIF is started every {@link GifScreenshotWorker#getFramesPerSegment()} screenshots
+     */
+    FRAME_COUNT,
+
+    /**
+     * A new GIF is started when the driver navigates to another URL
+     */
+    URL_CHANGE,
+
+    /**
+     * A new GIF is started every {@link GifScreenshotWorker#getSegmentWindowInMilliseconds()}
+     */
+    TIME_WINDOW
+}
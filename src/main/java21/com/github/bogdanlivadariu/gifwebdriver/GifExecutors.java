@@ -0,0 +1,33 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the default {@link Executor} used by the asynchronous API of {@link GifWebDriver}.
+ * <p>
+ * Java 21+ variant of the multi-release jar, every capture and encoding task runs on its own virtual thread
+ */
+public final class GifExecutors {
+
+    private static final ExecutorService DEFAULT_EXECUTOR =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gif-webdriver-", 0).factory());
+
+    private GifExecutors() {
+    }
+
+    /**
+     * @return - shared executor used for captures and GIF encoding when none was set explicitly
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * @return - true when the default executor runs tasks on virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return true;
+    }
+}
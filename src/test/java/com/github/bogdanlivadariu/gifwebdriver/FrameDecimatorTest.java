@@ -0,0 +1,143 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+@Test
+public class FrameDecimatorTest {
+
+    private static List<GifFrame> frames(long... sizes) {
+        List<GifFrame> frames = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            frames.add(new GifFrame("frame" + i, sizes[i], false, 100));
+        }
+        return frames;
+    }
+
+    private static int[] thumbnail(int rgb) {
+        int[] thumbnail = new int[FrameDecimator.THUMBNAIL_SIZE * FrameDecimator.THUMBNAIL_SIZE];
+        Arrays.fill(thumbnail, rgb);
+        return thumbnail;
+    }
+
+    private static int totalDelay(List<GifFrame> frames) {
+        return frames.stream().mapToInt(GifFrame::getDelay).sum();
+    }
+
+    public void noLimit() {
+        List<GifFrame> frames = frames(1, 2, 3);
+
+        assertSame(FrameDecimator.decimate(frames, 0), frames);
+        assertSame(FrameDecimator.decimate(frames, 3), frames);
+    }
+
+    public void keepsFirstLastAndTiming() {
+        List<GifFrame> frames = frames(10, 10, 10, 10, 10, 10, 10, 10, 10, 10);
+
+        List<GifFrame> kept = FrameDecimator.decimate(frames, 4);
+
+        assertEquals(kept.size(), 4);
+        assertEquals(kept.get(0).getPath(), "frame0");
+        assertEquals(kept.get(3).getPath(), "frame9");
+        assertEquals(totalDelay(kept), totalDelay(frames));
+    }
+
+    public void uniformStretchesAreThinnedEvenly() {
+        List<GifFrame> kept = FrameDecimator.decimate(frames(10, 10, 10, 10, 10, 10, 10, 10, 10), 3);
+
+        assertEquals(kept.get(1).getPath(), "frame4");
+    }
+
+    public void changingFramesAreKept() {
+        List<GifFrame> kept = FrameDecimator.decimate(frames(10, 10, 10, 50, 10, 10, 10), 3);
+
+        assertEquals(kept.get(1).getPath(), "frame3");
+        assertEquals(kept.get(0).getDelay(), 300);
+        assertEquals(kept.get(1).getDelay(), 300);
+    }
+
+    public void keyFramesAreKept() {
+        List<GifFrame> frames = frames(10, 10, 10, 10, 10, 10, 10);
+        frames.set(5, new GifFrame("frame5", 10, true, 100));
+
+        List<GifFrame> kept = FrameDecimator.decimate(frames, 3);
+
+        assertEquals(kept.get(1).getPath(), "frame5");
+    }
+
+    public void keyFramesAreDroppedWhenTheyDoNotFit() {
+        List<GifFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            frames.add(new GifFrame("frame" + i, 10, true, 100));
+        }
+
+        List<GifFrame> kept = FrameDecimator.decimate(frames, 2);
+
+        assertEquals(kept.size(), 2);
+        assertEquals(totalDelay(kept), 600);
+    }
+
+    public void difference() {
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 10, false, 0), new GifFrame("b", 10, false, 0)), 0.0);
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 5, false, 0), new GifFrame("b", 10, false, 0)), 0.5);
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 0, false, 0), new GifFrame("b", 0, false, 0)), 0.0);
+    }
+
+    public void pixelDifference() {
+        int[] black = thumbnail(0x000000);
+        int[] white = thumbnail(0xffffff);
+        int[] red = thumbnail(0xff0000);
+
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 10, black, false, 0),
+            new GifFrame("b", 10, black, false, 0)), 0.0);
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 10, black, false, 0),
+            new GifFrame("b", 10, white, false, 0)), 1.0);
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 10, black, false, 0),
+            new GifFrame("b", 10, red, false, 0)), 1.0 / 3, 0.0001);
+        assertEquals(FrameDecimator.difference(new GifFrame("a", 5, black, false, 0),
+            new GifFrame("b", 10, null, false, 0)), 0.5);
+    }
+
+    public void repaintedFramesOfTheSameSizeAreKept() {
+        List<GifFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            frames.add(new GifFrame("frame" + i, 10, thumbnail(i == 3 ? 0xffffff : 0x000000), false, 100));
+        }
+
+        List<GifFrame> kept = FrameDecimator.decimate(frames, 3);
+
+        assertEquals(kept.get(1).getPath(), "frame3");
+    }
+
+    public void thumbnailOfScreenshot() throws IOException {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 640; x++) {
+            for (int y = 0; y < 480; y++) {
+                image.setRGB(x, y, y < 240 ? Color.BLUE.getRGB() : Color.GREEN.getRGB());
+            }
+        }
+        File screenshot = new File("target" + File.separator + "frameDecimatorTest.png");
+        ImageIO.write(image, "png", screenshot);
+
+        try {
+            int[] thumbnail = FrameDecimator.thumbnail(screenshot);
+
+            assertEquals(thumbnail.length, FrameDecimator.THUMBNAIL_SIZE * FrameDecimator.THUMBNAIL_SIZE);
+            assertEquals(thumbnail[0] & 0xffffff, 0x0000ff);
+            assertEquals(thumbnail[thumbnail.length - 1] & 0xffffff, 0x00ff00);
+        } finally {
+            FileUtils.deleteQuietly(screenshot);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.bogdanlivadariu.gifwebdriver.GifTestUtils.countFrames;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+@Test
+public class GifBatchCreatorTest {
+
+    private final File root = new File("target" + File.separator + "gifBatchCreatorTest");
+
+    private GifBatchCreator creator;
+
+    private File session(String name, String... screenshots) throws IOException {
+        File session = new File(root, name);
+        for (int i = 0; i < screenshots.length; i++) {
+            BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+            image.setRGB(0, 0, i * 0x101010);
+            File screenshot = new File(session, "screenshots" + File.separator + screenshots[i]);
+            screenshot.getParentFile().mkdirs();
+            ImageIO.write(image, "png", screenshot);
+        }
+        return session;
+    }
+
+    @BeforeMethod
+    private void setup() {
+        creator = new GifBatchCreator();
+    }
+
+    @AfterMethod
+    private void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    public void testDefaults() {
+        assertEquals(creator.getThreads(), Runtime.getRuntime().availableProcessors());
+        assertEquals(creator.getScreenshotsFolderName(), "screenshots");
+        assertEquals(creator.getGeneratedGIFsFolderName(), "generatedGifs");
+        assertTrue(creator.isResume());
+    }
+
+    public void findSessions() throws IOException {
+        File first = session("first", "0abcdefghij.png");
+        File second = session("second", "0abcdefghij.png");
+        new File(root, "notASession").mkdirs();
+
+        assertEquals(creator.findSessions(root), Arrays.asList(first, second));
+        assertEquals(creator.findSessions(first), Arrays.asList(first));
+    }
+
+    public void screenshotsAreOrderedByCounter() throws IOException {
+        File session = session("session", "10ZzzZzzZzzZ.png", "2AaaAaaAaaA.png", "12345678901.png",
+            "0CccCccCccC.png");
+        new File(session, "screenshots" + File.separator + "notes.txt").createNewFile();
+
+        List<String> screenshots = creator.findScreenshots(session);
+
+        assertEquals(screenshots.size(), 4);
+        assertTrue(screenshots.get(0).endsWith("0CccCccCccC.png"));
+        assertTrue(screenshots.get(1).endsWith("12345678901.png"));
+        assertTrue(screenshots.get(2).endsWith("2AaaAaaAaaA.png"));
+        assertTrue(screenshots.get(3).endsWith("10ZzzZzzZzzZ.png"));
+    }
+
+    public void counterOfScreenshotTakenByWorker() {
+        assertEquals(GifBatchCreator.getCounter(new File("7a1b2c3d4e5.png")), 7);
+        assertEquals(GifBatchCreator.getCounter(new File("120123456789.png")), 12);
+        assertEquals(GifBatchCreator.getCounter(new File("foo.png")), Long.MAX_VALUE);
+    }
+
+    public void createGifs() throws IOException {
+        File first = session("first", "0aaaaaaaaaa.png", "1bbbbbbbbbb.png", "2cccccccccc.png");
+        File second = session("second", "0aaaaaaaaaa.png", "1bbbbbbbbbb.png");
+        creator.setThreads(2);
+        creator.setWorkerConfiguration(worker -> worker.setMaxFrames(2));
+
+        Map<File, File> gifs = creator.createGifs(root);
+
+        assertEquals(gifs.size(), 2);
+        assertEquals(gifs.get(first), new File(first, "generatedGifs" + File.separator + "first.gif"));
+        assertEquals(countFrames(gifs.get(first)), 2);
+        assertEquals(countFrames(gifs.get(second)), 2);
+        assertEquals(FileUtils.readLines(creator.getProgressFile(first), "UTF-8").size(), 2);
+    }
+
+    public void createGifsResumes() throws IOException {
+        session("first", "0aaaaaaaaaa.png");
+
+        assertEquals(creator.createGifs(root).size(), 1);
+
+        File second = session("second", "0aaaaaaaaaa.png");
+
+        Map<File, File> gifs = creator.createGifs(root);
+        assertEquals(gifs.keySet(), Collections.singleton(second));
+
+        creator.setResume(false);
+        assertEquals(creator.createGifs(root).size(), 2);
+    }
+
+    public void progressIsReadOncePerFolder() throws IOException {
+        File first = session("first", "0aaaaaaaaaa.png");
+        session("second", "0aaaaaaaaaa.png");
+        session("third", "0aaaaaaaaaa.png");
+        creator.createGifs(root);
+
+        GifBatchCreator spy = spy(creator);
+
+        assertTrue(spy.createGifs(root).isEmpty());
+        verify(spy, times(1)).readCompletedSessions(creator.getProgressFile(first));
+    }
+
+    public void failedSessionIsNotMarkedCompleted() throws IOException {
+        File session = session("session");
+        new File(session, "screenshots").mkdirs();
+
+        Map<File, File> gifs = creator.createGifs(root);
+
+        assertTrue(gifs.containsKey(session));
+        assertNull(gifs.get(session));
+        assertFalse(creator.getProgressFile(session).exists());
+    }
+
+    public void commandLine() throws IOException {
+        File session = session("session", "0aaaaaaaaaa.png", "1bbbbbbbbbb.png");
+
+        String[] args = {"--threads", "1", "--loop", "--delay", "100", root.getPath()};
+
+        assertEquals(GifBatchCreator.run(args), 0);
+        assertTrue(new File(session, "generatedGifs" + File.separator + "session.gif").exists());
+    }
+
+    public void sessionsShareOnePalette() throws IOException {
+        session("first", "0aaaaaaaaaa.png", "1bbbbbbbbbb.png");
+        session("second", "0aaaaaaaaaa.png", "1bbbbbbbbbb.png", "2cccccccccc.png");
+        File palettes = new File(root, "palettes");
+        PaletteCache paletteCache = new PaletteCache(palettes);
+        creator.setWorkerConfiguration(worker -> worker.setPaletteCache(paletteCache));
+        creator.setPaletteKey("my application");
+
+        assertEquals(creator.createGifs(root).size(), 2);
+
+        assertEquals(palettes.list(), new String[] {"my_application.palette"});
+    }
+
+    public void paletteCacheIsSkippedWithoutPaletteKey() throws IOException {
+        session("first", "0aaaaaaaaaa.png");
+        session("second", "0aaaaaaaaaa.png");
+        File palettes = new File(root, "palettes");
+        PaletteCache paletteCache = new PaletteCache(palettes);
+        creator.setWorkerConfiguration(worker -> worker.setPaletteCache(paletteCache));
+
+        Map<File, File> gifs = creator.createGifs(root);
+
+        assertEquals(gifs.size(), 2);
+        assertFalse(gifs.containsValue(null));
+        assertFalse(palettes.exists());
+    }
+
+    public void commandLinePaletteKey() throws IOException {
+        session("first", "0aaaaaaaaaa.png");
+        session("second", "0aaaaaaaaaa.png");
+        File palettes = new File(root, "palettes");
+
+        String[] args = {"--palette-cache", palettes.getPath(), "--palette-key", "my application", root.getPath()};
+
+        assertEquals(GifBatchCreator.run(args), 0);
+        assertEquals(palettes.list(), new String[] {"my_application.palette"});
+    }
+
+    public void commandLineInvalidArguments() {
+        assertEquals(GifBatchCreator.run(new String[0]), 2);
+        assertEquals(GifBatchCreator.run(new String[] {"--unknown", root.getPath()}), 2);
+        assertEquals(GifBatchCreator.run(new String[] {"--threads"}), 2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+@Test
+public class GifPaletteTest {
+
+    private static BufferedImage image(int width, int height, int... colors) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int i = 0; i < width * height; i++) {
+            image.setRGB(i % width, i / width, colors[i % colors.length]);
+        }
+        return image;
+    }
+
+    private static BufferedImage gradient() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 4) << 8 | (x + y) * 2);
+            }
+        }
+        return image;
+    }
+
+    public void keepsExactColors() {
+        GifPalette palette = GifPalette.build(Collections.singletonList(image(4, 4, 0xFFFFFF, 0x1F3A5F, 0x404040)));
+
+        int[] colors = palette.getColors();
+        Arrays.sort(colors);
+
+        assertEquals(colors, new int[] {0x1F3A5F, 0x404040, 0xFFFFFF});
+    }
+
+    public void gradientIsReducedTo256Colors() {
+        GifPalette palette = GifPalette.build(Collections.singletonList(gradient()));
+
+        assertEquals(palette.getColors().length, GifPalette.MAX_COLORS);
+        assertEquals(palette.getColorModel().getMapSize(), 256);
+    }
+
+    public void colorTableSizeIsAPowerOfTwo() {
+        GifPalette palette = new GifPalette(new int[] {0, 1, 2});
+
+        assertEquals(palette.getColorModel().getMapSize(), 4);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void tooManyColors() {
+        new GifPalette(new int[257]);
+    }
+
+    public void nearestColorWithoutDithering() {
+        GifPalette palette = new GifPalette(new int[] {0x000000, 0xFFFFFF, 0xFF0000});
+
+        BufferedImage indexed = palette.apply(image(3, 1, 0x101010, 0xEEEEEE, 0xDD1111), Dithering.NONE);
+
+        assertEquals(indexed.getType(), BufferedImage.TYPE_BYTE_INDEXED);
+        assertEquals(indexed.getRGB(0, 0) & 0xFFFFFF, 0x000000);
+        assertEquals(indexed.getRGB(1, 0) & 0xFFFFFF, 0xFFFFFF);
+        assertEquals(indexed.getRGB(2, 0) & 0xFFFFFF, 0xFF0000);
+    }
+
+    public void ditheringMixesPaletteColors() {
+        GifPalette palette = new GifPalette(new int[] {0x000000, 0xFFFFFF});
+        BufferedImage gray = image(16, 16, 0x808080);
+
+        for (Dithering dithering : new Dithering[] {Dithering.ORDERED, Dithering.ERROR_DIFFUSION}) {
+            BufferedImage indexed = palette.apply(gray, dithering);
+
+            IndexColorModel colorModel = (IndexColorModel) indexed.getColorModel();
+            assertSame(colorModel, palette.getColorModel());
+
+            int white = 0;
+            for (int y = 0; y < 16; y++) {
+                for (int x = 0; x < 16; x++) {
+                    white += (indexed.getRGB(x, y) & 0xFFFFFF) == 0xFFFFFF ? 1 : 0;
+                }
+            }
+            assertTrue(white > 64 && white < 192, dithering + " should mix black and white, got " + white);
+        }
+    }
+}
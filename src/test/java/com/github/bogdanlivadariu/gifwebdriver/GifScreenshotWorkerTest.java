@@ -9,13 +9,23 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.github.bogdanlivadariu.gifwebdriver.GifTestUtils.countFrames;
+import static com.github.bogdanlivadariu.gifwebdriver.GifTestUtils.totalDelay;
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.*;
 
@@ -32,6 +42,50 @@ public class GifScreenshotWorkerTest {
         }
     }
 
+    /**
+     * @return - number of pixels that are not black in every frame of the GIF, frame i of
+     * {@link #driverWithChangingScreenshots(int)} has i + 1 of them
+     */
+    private static List<Integer> countColoredPixels(File gif) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(gif)) {
+            ImageReader reader = ImageIO.getImageReadersBySuffix("gif").next();
+            reader.setInput(input);
+
+            List<Integer> coloredPixels = new ArrayList<>();
+            for (int i = 0; i < reader.getNumImages(true); i++) {
+                BufferedImage frame = reader.read(i);
+                int colored = 0;
+                for (int x = 0; x < frame.getWidth(); x++) {
+                    for (int y = 0; y < frame.getHeight(); y++) {
+                        if ((frame.getRGB(x, y) & 0xffffff) != 0) {
+                            colored++;
+                        }
+                    }
+                }
+                coloredPixels.add(colored);
+            }
+            reader.dispose();
+            return coloredPixels;
+        }
+    }
+
+    private static WebDriver driverWithChangingScreenshots(int screenshots) throws IOException {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+
+        byte[][] data = new byte[screenshots][];
+        for (int i = 0; i < screenshots; i++) {
+            BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_3BYTE_BGR);
+            for (int pixel = 0; pixel <= i; pixel++) {
+                image.setRGB(pixel % 8, pixel / 8, Color.HSBtoRGB(pixel / 64f, 1, 1));
+            }
+            data[i] = bufferedImageToByteArray(image, "png");
+        }
+
+        when(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES))
+            .thenReturn(data[0], Arrays.copyOfRange(data, 1, screenshots));
+        return driver;
+    }
+
     @BeforeMethod
     private void setup() {
         worker = new GifScreenshotWorker(null);
@@ -202,4 +256,309 @@ public class GifScreenshotWorkerTest {
 
         assertNull(spy.createGif());
     }
+
+    public void testBudgetDefaults() {
+        assertEquals(worker.getMaxFrames(), 0);
+        assertEquals(worker.getMaxTotalDurationInMilliseconds(), 0);
+        assertEquals(worker.getMaxOutputBytes(), 0);
+    }
+
+    public void testSetBudget() {
+        worker.setMaxFrames(10);
+        worker.setMaxTotalDurationInMilliseconds(2000);
+        worker.setMaxOutputBytes(1024);
+
+        assertEquals(worker.getMaxFrames(), 10);
+        assertEquals(worker.getMaxTotalDurationInMilliseconds(), 2000);
+        assertEquals(worker.getMaxOutputBytes(), 1024);
+    }
+
+    public void createGifWithoutBudgetKeepsAllFrames() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(12));
+
+        for (int i = 0; i < 12; i++) {
+            worker.takeScreenshot();
+        }
+
+        assertEquals(countFrames(worker.createGif()), 12);
+    }
+
+    public void createGifMaxFrames() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(12));
+        worker.setMaxFrames(4);
+
+        for (int i = 0; i < 12; i++) {
+            worker.takeScreenshot();
+        }
+
+        assertEquals(countFrames(worker.createGif()), 4);
+    }
+
+    public void createGifMaxTotalDuration() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(12));
+        worker.setMaxTotalDurationInMilliseconds(2000);
+
+        for (int i = 0; i < 12; i++) {
+            worker.takeScreenshot();
+        }
+
+        // the frames that fit at 500ms are kept and the 6s of screenshots play in 2s
+        File gif = worker.createGif();
+        assertEquals(countFrames(gif), 4);
+        assertEquals(totalDelay(gif), 2000, 40);
+    }
+
+    public void createGifMaxOutputBytes() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(12));
+        worker.setMaxOutputBytes(1);
+
+        for (int i = 0; i < 12; i++) {
+            worker.takeScreenshot();
+        }
+
+        assertEquals(countFrames(worker.createGif()), 2);
+    }
+
+    public void markKeyFrame() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(12));
+        worker.setMaxFrames(4);
+
+        for (int i = 0; i < 12; i++) {
+            worker.takeScreenshot();
+            if (i == 3) {
+                worker.markKeyFrame();
+            }
+        }
+
+        // first and last frames plus the screenshots taken right before and after the mark
+        assertEquals(countColoredPixels(worker.createGif()), Arrays.asList(1, 4, 5, 12));
+    }
+
+    public void testSegmentationDefaults() {
+        assertEquals(worker.getSegmentationMode(), SegmentationMode.NONE);
+        assertEquals(worker.getFramesPerSegment(), 100);
+        assertEquals(worker.getSegmentWindowInMilliseconds(), 60000);
+        assertEquals(worker.getSegmentIndexFile().getPath(),
+            new File(worker.getGeneratedGIFsFolderName() + worker.getUniqueName() + "-segments.tsv").getPath());
+    }
+
+    public void testSetSegmentation() {
+        worker.setSegmentationMode(SegmentationMode.FRAME_COUNT);
+        worker.setFramesPerSegment(5);
+        worker.setSegmentWindowInMilliseconds(10);
+
+        assertEquals(worker.getSegmentationMode(), SegmentationMode.FRAME_COUNT);
+        assertEquals(worker.getFramesPerSegment(), 5);
+        assertEquals(worker.getSegmentWindowInMilliseconds(), 10);
+    }
+
+    public void noSegmentIndexWithoutSegmentation() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(2));
+
+        worker.takeScreenshot();
+        worker.createGif();
+
+        assertFalse(worker.getSegmentIndexFile().exists());
+    }
+
+    public void segmentByFrameCount() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(5));
+        worker.setSegmentationMode(SegmentationMode.FRAME_COUNT);
+        worker.setFramesPerSegment(2);
+
+        for (int i = 0; i < 5; i++) {
+            worker.takeScreenshot();
+        }
+
+        assertEquals(worker.getScreenshotsTaken().size(), 1);
+
+        File lastSegment = worker.createGif();
+
+        assertTrue(new File(worker.getGeneratedGIFsFolderName() + worker.getUniqueName() + "-0000.gif").exists());
+        assertTrue(new File(worker.getGeneratedGIFsFolderName() + worker.getUniqueName() + "-0001.gif").exists());
+
+        assertEquals(lastSegment.getName(), worker.getUniqueName() + "-0002.gif");
+        assertEquals(countFrames(lastSegment), 1);
+
+        List<String> index = FileUtils.readLines(worker.getSegmentIndexFile(), "UTF-8");
+        assertEquals(index.size(), 4);
+        assertEquals(index.get(0), "segment\tfile\ttest\turl\tstart\tend\tscreenshots");
+        assertTrue(index.get(3).startsWith("2\t" + lastSegment.getName() + "\t"));
+        assertTrue(index.get(3).endsWith("\t1"));
+    }
+
+    public void segmentByTestMethod() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(3));
+        worker.setSegmentationMode(SegmentationMode.TEST_METHOD);
+
+        worker.startTest("firstTest");
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+        worker.startTest("secondTest");
+        worker.takeScreenshot();
+        worker.createGif();
+
+        List<String> index = FileUtils.readLines(worker.getSegmentIndexFile(), "UTF-8");
+        assertEquals(index.size(), 3);
+        assertEquals(index.get(1).split("\t")[2], "firstTest");
+        assertEquals(index.get(1).split("\t")[6], "2");
+        assertEquals(index.get(2).split("\t")[2], "secondTest");
+        assertEquals(index.get(2).split("\t")[6], "1");
+    }
+
+    public void segmentByUrlChange() throws IOException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(4));
+        worker.setSegmentationMode(SegmentationMode.URL_CHANGE);
+
+        worker.navigatedTo("http://foo");
+        worker.takeScreenshot();
+        worker.navigatedTo("http://foo");
+        worker.takeScreenshot();
+        worker.navigatedTo("http://bar");
+        worker.takeScreenshot();
+
+        assertEquals(worker.getScreenshotsTaken().size(), 1);
+
+        worker.createGif();
+
+        List<String> index = FileUtils.readLines(worker.getSegmentIndexFile(), "UTF-8");
+        assertEquals(index.size(), 3);
+        assertEquals(index.get(1).split("\t")[3], "http://foo");
+        assertEquals(index.get(2).split("\t")[3], "http://bar");
+    }
+
+    public void segmentByTimeWindow() throws IOException, InterruptedException {
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(3));
+        worker.setSegmentationMode(SegmentationMode.TIME_WINDOW);
+        worker.setSegmentWindowInMilliseconds(50);
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+        Thread.sleep(60);
+        worker.takeScreenshot();
+
+        assertEquals(worker.getScreenshotsTaken().size(), 1);
+
+        worker.createGif();
+
+        assertTrue(new File(worker.getGeneratedGIFsFolderName() + worker.getUniqueName() + "-0000.gif").exists());
+    }
+
+    public void segmentsAreEncodedOnTheExecutor() throws IOException {
+        List<Runnable> encodings = new ArrayList<>();
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(2));
+        worker.setSegmentationMode(SegmentationMode.FRAME_COUNT);
+        worker.setFramesPerSegment(2);
+        worker.setExecutor(encodings::add);
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+
+        File segment = new File(worker.getGeneratedGIFsFolderName() + worker.getUniqueName() + "-0000.gif");
+        assertTrue(worker.getScreenshotsTaken().isEmpty());
+        assertEquals(encodings.size(), 1);
+        assertFalse(segment.exists());
+
+        encodings.get(0).run();
+
+        assertEquals(countFrames(segment), 2);
+    }
+
+    public void failedSegmentIsDropped() throws IOException {
+        List<Runnable> encodings = new ArrayList<>();
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(4));
+        worker.setSegmentationMode(SegmentationMode.FRAME_COUNT);
+        worker.setFramesPerSegment(2);
+        worker.setExecutor(encodings::add);
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+        FileUtils.deleteDirectory(new File(worker.getScreenshotsFolderName()));
+        encodings.get(0).run();
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+        encodings.get(1).run();
+
+        String segmentName = worker.getGeneratedGIFsFolderName() + worker.getUniqueName();
+        assertFalse(new File(segmentName + "-0000.gif").exists());
+        assertEquals(countFrames(new File(segmentName + "-0001.gif")), 2);
+
+        List<String> index = FileUtils.readLines(worker.getSegmentIndexFile(), "UTF-8");
+        assertEquals(index.size(), 2);
+        assertTrue(index.get(1).startsWith("1\t"));
+    }
+
+    public void testPaletteDefaults() {
+        assertNull(worker.getPaletteCache());
+        assertNull(worker.getPaletteKey());
+        assertEquals(worker.getDithering(), Dithering.NONE);
+    }
+
+    public void createGifWithPaletteCache() throws IOException {
+        BufferedImage page = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+        for (int i = 0; i < 16; i++) {
+            page.setRGB(i % 4, i / 4, i % 2 == 0 ? 0x1F3A5F : 0xFFFFFF);
+        }
+
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+        when(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES))
+            .thenReturn(bufferedImageToByteArray(page, "png"));
+
+        PaletteCache cache = new PaletteCache();
+        worker = new GifScreenshotWorker(driver);
+        worker.setPaletteCache(cache);
+        worker.navigatedTo("http://example.com/page");
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+
+        BufferedImage frame = ImageIO.read(worker.createGif());
+
+        assertEquals(frame.getRGB(0, 0) & 0xFFFFFF, 0x1F3A5F);
+        assertEquals(frame.getRGB(1, 0) & 0xFFFFFF, 0xFFFFFF);
+        assertEquals(cache.getPalette("example.com", ArrayList::new).getColors().length, 2);
+    }
+
+    public void createGifWithoutPaletteKeySkipsPaletteCache() throws IOException {
+        File paletteFolder = new File(worker.getRootDir() + File.separator + "palettes");
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(2));
+        worker.setPaletteCache(new PaletteCache(paletteFolder));
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+
+        assertEquals(countFrames(worker.createGif()), 2);
+        assertFalse(paletteFolder.exists());
+    }
+
+    public void screenshotsAreTakenWhileTheGifIsEncoded() throws Exception {
+        CountDownLatch encoding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        worker = new GifScreenshotWorker(driverWithChangingScreenshots(3));
+        worker.setPaletteKey("application");
+        worker.setPaletteCache(new PaletteCache() {
+            @Override
+            public GifPalette getPalette(String key, Supplier<List<BufferedImage>> samples) {
+                encoding.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getPalette(key, samples);
+            }
+        });
+
+        worker.takeScreenshot();
+        worker.takeScreenshot();
+        CompletableFuture<File> gif = CompletableFuture.supplyAsync(worker::createGif);
+        assertTrue(encoding.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(worker::takeScreenshot).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertEquals(countFrames(gif.join()), 2);
+        assertEquals(worker.getScreenshotsTaken().size(), 1);
+    }
 }
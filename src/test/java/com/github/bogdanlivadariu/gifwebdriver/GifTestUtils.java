@@ -0,0 +1,51 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Helpers shared by the tests that check generated GIFs
+ */
+final class GifTestUtils {
+
+    private GifTestUtils() {
+    }
+
+    /**
+     * @return - number of frames stored in the GIF
+     */
+    static int countFrames(File gif) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(gif)) {
+            ImageReader reader = ImageIO.getImageReadersBySuffix("gif").next();
+            reader.setInput(input);
+            int frames = reader.getNumImages(true);
+            reader.dispose();
+            return frames;
+        }
+    }
+
+    /**
+     * @return - time in milliseconds the GIF takes to play once
+     */
+    static int totalDelay(File gif) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(gif)) {
+            ImageReader reader = ImageIO.getImageReadersBySuffix("gif").next();
+            reader.setInput(input);
+
+            int delay = 0;
+            for (int i = 0; i < reader.getNumImages(true); i++) {
+                IIOMetadataNode root =
+                    (IIOMetadataNode) reader.getImageMetadata(i).getAsTree("javax_imageio_gif_image_1.0");
+                IIOMetadataNode control =
+                    (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+                delay += Integer.parseInt(control.getAttribute("delayTime")) * 10;
+            }
+            reader.dispose();
+            return delay;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.OutputType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.bogdanlivadariu.gifwebdriver.GifTestUtils.countFrames;
+import static org.testng.Assert.*;
+
+/**
+ * Drives {@link GifWebDriver} end to end against {@link SyntheticWebDriver} sessions.
+ * <p>
+ * The concurrent run doubles as a benchmark, its size can be changed with the system properties
+ * gif.load.sessions, gif.load.frames, gif.load.width, gif.load.height and gif.load.latency
+ */
+@Test
+public class GifWebDriverLoadTest {
+
+    private static final String ROOT_DIR = "target" + File.separator + "gifLoadTest";
+
+    private final Logger logger = LogManager.getLogger(GifWebDriverLoadTest.class);
+
+    private static GifWebDriver gifDriver(SyntheticWebDriver driver) {
+        return new GifWebDriver(driver,
+            new GifScreenshotWorker(driver, ROOT_DIR, "screenshots", "generatedGifs", true));
+    }
+
+    @DataProvider
+    private Object[][] workloads() {
+        return Arrays.stream(PageWorkload.values()).map(workload -> new Object[] {workload}).toArray(Object[][]::new);
+    }
+
+    @AfterMethod
+    private void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(ROOT_DIR));
+    }
+
+    @Test(dataProvider = "workloads")
+    public void workloadIsDeterministic(PageWorkload workload) {
+        SyntheticWebDriver first = new SyntheticWebDriver(workload, 64, 48);
+        SyntheticWebDriver second = new SyntheticWebDriver(workload, 64, 48);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first.getScreenshotAs(OutputType.BYTES), second.getScreenshotAs(OutputType.BYTES));
+        }
+    }
+
+    public void workloadChangePatterns() {
+        SyntheticWebDriver staticPage = new SyntheticWebDriver(PageWorkload.STATIC, 64, 48);
+        SyntheticWebDriver repaintedPage = new SyntheticWebDriver(PageWorkload.FULL_REPAINT, 64, 48);
+        SyntheticWebDriver scrolledPage = new SyntheticWebDriver(PageWorkload.SCROLLING, 64, 48);
+
+        assertEquals(staticPage.getScreenshotAs(OutputType.BYTES), staticPage.getScreenshotAs(OutputType.BYTES));
+        assertNotEquals(repaintedPage.getScreenshotAs(OutputType.BYTES),
+            repaintedPage.getScreenshotAs(OutputType.BYTES));
+
+        byte[] beforeScroll = scrolledPage.getScreenshotAs(OutputType.BYTES);
+        scrolledPage.executeScript("window.scrollBy(0, 100)");
+        assertNotEquals(scrolledPage.getScreenshotAs(OutputType.BYTES), beforeScroll);
+    }
+
+    public void simulatedLatency() {
+        SyntheticWebDriver driver = new SyntheticWebDriver(PageWorkload.STATIC, 16, 16);
+        driver.setLatencyInMilliseconds(20);
+
+        long start = System.nanoTime();
+        driver.get("http://foo");
+        driver.getTitle();
+
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+        assertEquals(driver.getCalls(), 2);
+    }
+
+    public void optionsAndTargetLocator() throws IOException {
+        SyntheticWebDriver driver = new SyntheticWebDriver(PageWorkload.STATIC, 64, 48);
+        GifWebDriver gifDriver = gifDriver(driver);
+
+        gifDriver.manage().timeouts().implicitlyWait(1, TimeUnit.SECONDS);
+        gifDriver.manage().addCookie(new Cookie("session", "synthetic"));
+        gifDriver.manage().window().setSize(new Dimension(32, 24));
+        gifDriver.switchTo().defaultContent();
+        assertNotNull(gifDriver.switchTo().activeElement());
+        gifDriver.findElement(By.id("button")).click();
+
+        assertEquals(gifDriver.manage().getCookieNamed("session").getValue(), "synthetic");
+        assertEquals(gifDriver.manage().window().getSize(), new Dimension(32, 24));
+        try {
+            gifDriver.switchTo().alert();
+            fail("Synthetic pages have no alerts");
+        } catch (NoAlertPresentException e) {
+            // expected
+        }
+
+        BufferedImage frame = ImageIO.read(gifDriver.getGifScreenshotWorker().createGif());
+        assertEquals(frame.getWidth(), 32);
+        assertEquals(frame.getHeight(), 24);
+    }
+
+    @Test(dataProvider = "workloads")
+    public void endToEnd(PageWorkload workload) throws IOException {
+        SyntheticWebDriver driver = new SyntheticWebDriver(workload, 320, 240);
+        GifWebDriver gifDriver = gifDriver(driver);
+
+        gifDriver.get("http://synthetic/" + workload);
+        for (int i = 0; i < 5; i++) {
+            gifDriver.findElement(By.id("button" + i)).click();
+        }
+        File gif = gifDriver.quitAsync().join();
+
+        assertTrue(driver.isQuit());
+        assertEquals(driver.getScreenshotsTaken(), 6);
+        assertEquals(countFrames(gif), 6);
+    }
+
+    public void concurrentSessions() {
+        runConcurrentSessions(null);
+    }
+
+    public void concurrentSessionsWithPaletteCache() {
+        runConcurrentSessions(new PaletteCache());
+    }
+
+    private void runConcurrentSessions(PaletteCache paletteCache) {
+        int sessions = Integer.getInteger("gif.load.sessions", 8);
+        int frames = Integer.getInteger("gif.load.frames", 10);
+        int width = Integer.getInteger("gif.load.width", 320);
+        int height = Integer.getInteger("gif.load.height", 240);
+        long latency = Long.getLong("gif.load.latency", 5);
+
+        long start = System.nanoTime();
+
+        List<CompletableFuture<File>> gifs = new ArrayList<>();
+        for (int session = 0; session < sessions; session++) {
+            SyntheticWebDriver driver =
+                new SyntheticWebDriver(PageWorkload.values()[session % PageWorkload.values().length], width, height);
+            driver.setLatencyInMilliseconds(latency);
+            GifWebDriver gifDriver = gifDriver(driver);
+            gifDriver.getGifScreenshotWorker().setPaletteCache(paletteCache);
+            gifDriver.getGifScreenshotWorker().setPaletteKey(driver.getWorkload().name());
+
+            CompletableFuture<Void> capture = CompletableFuture.completedFuture(null);
+            for (int frame = 0; frame < frames; frame++) {
+                capture = capture.thenCompose(ignored -> gifDriver.takeScreenshotAsync());
+            }
+            gifs.add(capture.thenCompose(ignored -> gifDriver.quitAsync()));
+        }
+        CompletableFuture.allOf(gifs.toArray(new CompletableFuture<?>[0])).join();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int screenshots = sessions * (frames + 1);
+
+        logger.info(String.format("%d sessions%s, %d screenshots of %dx%d in %.2fs: %.1f screenshots/s, %.1f gifs/s",
+            sessions, paletteCache == null ? "" : " with palette cache", screenshots, width, height, seconds,
+            screenshots / seconds, sessions / seconds));
+
+        gifs.forEach(gif -> assertTrue(gif.join().exists()));
+    }
+}
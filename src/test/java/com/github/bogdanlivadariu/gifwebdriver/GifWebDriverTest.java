@@ -4,6 +4,10 @@ import org.mockito.InOrder;
 import org.openqa.selenium.*;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.*;
 
@@ -131,4 +135,102 @@ public class GifWebDriverTest {
 
         verify(workerMock, times(0)).takeScreenshot();
     }
+
+    public void defaultExecutor() {
+        GifWebDriver gif = new GifWebDriver(mock(WebDriver.class));
+
+        assertEquals(gif.getExecutor(), GifExecutors.defaultExecutor());
+    }
+
+    public void takeScreenshotAsyncUsesExecutor() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+        Executor executor = spy(Executor.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        GifWebDriver gif = new GifWebDriver(mock(WebDriver.class), workerMock);
+        gif.setExecutor(executor);
+
+        gif.takeScreenshotAsync().join();
+
+        verify(executor, times(1)).execute(any(Runnable.class));
+        verify(workerMock, times(1)).takeScreenshot();
+    }
+
+    public void createGifAsync() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+        File gifFile = new File("foo.gif");
+        when(workerMock.createGif()).thenReturn(gifFile);
+
+        GifWebDriver gif = new GifWebDriver(mock(WebDriver.class), workerMock);
+
+        assertEquals(gif.createGifAsync().join(), gifFile);
+    }
+
+    public void onQuitAsyncTakeScreenshotQuitCreateGif() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+        File gifFile = new File("foo.gif");
+        when(workerMock.createGif()).thenReturn(gifFile);
+
+        GifWebDriver gif = new GifWebDriver(driver, workerMock);
+        gif.setExecutor(Runnable::run);
+
+        assertEquals(gif.quitAsync().join(), gifFile);
+
+        InOrder order = inOrder(workerMock, driver);
+
+        order.verify(workerMock, times(1)).takeScreenshot();
+        order.verify(driver, times(1)).quit();
+        order.verify(workerMock, times(1)).createGif();
+    }
+
+    public void onQuitAsyncFailureGifIsStillCreated() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(TakesScreenshot.class));
+        WebDriverException quitFailure = new WebDriverException("Session timed out");
+        doThrow(quitFailure).when(driver).quit();
+
+        GifWebDriver gif = new GifWebDriver(driver, workerMock);
+        gif.setExecutor(Runnable::run);
+
+        try {
+            gif.quitAsync().join();
+            fail("The quit failure should be passed on");
+        } catch (CompletionException e) {
+            assertSame(e.getCause(), quitFailure);
+        }
+
+        verify(workerMock, times(1)).createGif();
+    }
+
+    public void onNavigationMarkKeyFrame() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+
+        GifWebDriver gif = new GifWebDriver(mock(WebDriver.class), workerMock);
+
+        gif.get("http://foo");
+
+        verify(workerMock, times(1)).markKeyFrame();
+        verify(workerMock, times(1)).navigatedTo("http://foo");
+        verify(workerMock, times(0)).takeScreenshot();
+    }
+
+    public void onExceptionMarkKeyFrame() {
+        GifScreenshotWorker workerMock = mock(GifScreenshotWorker.class);
+        WebDriver driver = mock(WebDriver.class);
+        when(driver.findElement(By.name("missing"))).thenThrow(new NoSuchElementException("missing"));
+
+        GifWebDriver gif = new GifWebDriver(driver, workerMock);
+
+        try {
+            gif.findElement(By.name("missing"));
+            fail("The exception should be rethrown");
+        } catch (NoSuchElementException ignored) {
+        }
+
+        verify(workerMock, times(1)).markKeyFrame();
+    }
 }
@@ -0,0 +1,119 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Synthetic pages rendered by {@link SyntheticWebDriver}, every frame only depends on the page size,
+ * the frame number and the scroll position so runs are reproducible
+ */
+public enum PageWorkload {
+
+    /**
+     * The same page on every screenshot
+     */
+    STATIC {
+        @Override
+        void paint(Graphics2D graphics, int width, int height, int frame, int scrollY) {
+            paintDocument(graphics, width, height, 0);
+        }
+    },
+
+    /**
+     * A long document scrolled a bit further on every screenshot and every script execution
+     */
+    SCROLLING {
+        @Override
+        void paint(Graphics2D graphics, int width, int height, int frame, int scrollY) {
+            paintDocument(graphics, width, height, scrollY + frame * height / 4);
+        }
+    },
+
+    /**
+     * A static page with a small spinner that changes on every screenshot
+     */
+    ANIMATED_REGION {
+        @Override
+        void paint(Graphics2D graphics, int width, int height, int frame, int scrollY) {
+            paintDocument(graphics, width, height, 0);
+
+            int size = Math.max(Math.min(width, height) / 10, 4);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(width - size * 2, size, size, size);
+            graphics.setColor(Color.getHSBColor(frame / 12f, 0.8f, 0.9f));
+            graphics.fillArc(width - size * 2, size, size, size, frame * 30, 90);
+        }
+    },
+
+    /**
+     * A completely different page on every screenshot
+     */
+    FULL_REPAINT {
+        @Override
+        void paint(Graphics2D graphics, int width, int height, int frame, int scrollY) {
+            Random random = new Random(frame);
+            int block = Math.max(Math.min(width, height) / 16, 1);
+
+            for (int y = 0; y < height; y += block) {
+                for (int x = 0; x < width; x += block) {
+                    graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+                    graphics.fillRect(x, y, block, block);
+                }
+            }
+        }
+    };
+
+    private static final int LINE_HEIGHT = 24;
+
+    /**
+     * Paints the viewport of an endless document made of a header, paragraphs and images
+     */
+    private static void paintDocument(Graphics2D graphics, int width, int height, int offset) {
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+
+        int firstLine = offset / LINE_HEIGHT;
+        for (int line = firstLine; line * LINE_HEIGHT - offset < height; line++) {
+            Random random = new Random(line);
+            int y = line * LINE_HEIGHT - offset;
+
+            if (line % 20 == 0) {
+                graphics.setColor(new Color(0x1F3A5F));
+                graphics.fillRect(0, y, width, LINE_HEIGHT - 4);
+            } else if (line % 7 == 0) {
+                graphics.setColor(Color.getHSBColor(random.nextFloat(), 0.5f, 0.8f));
+                graphics.fillRect(width / 8, y, width / 3, LINE_HEIGHT * 3);
+            } else {
+                graphics.setColor(Color.DARK_GRAY);
+                int x = width / 8;
+                while (x < width * 7 / 8) {
+                    int word = 10 + random.nextInt(60);
+                    graphics.fillRect(x, y + 8, Math.min(word, width * 7 / 8 - x), 8);
+                    x += word + 8;
+                }
+            }
+        }
+    }
+
+    abstract void paint(Graphics2D graphics, int width, int height, int frame, int scrollY);
+
+    /**
+     * @param width   - screenshot width
+     * @param height  - screenshot height
+     * @param frame   - number of screenshots taken before this one
+     * @param scrollY - scroll position set through scripts
+     * @return - rendered screenshot
+     */
+    public BufferedImage render(int width, int height, int frame, int scrollY) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            paint(graphics, width, height, frame, scrollY);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
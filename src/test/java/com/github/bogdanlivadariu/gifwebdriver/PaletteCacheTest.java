@@ -0,0 +1,137 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.*;
+
+@Test
+public class PaletteCacheTest {
+
+    private final File directory = new File("target" + File.separator + "paletteCacheTest");
+
+    private static Supplier<List<BufferedImage>> samples(AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_3BYTE_BGR);
+            image.setRGB(0, 0, 0x1F3A5F);
+            image.setRGB(1, 0, 0xFFFFFF);
+            return Collections.singletonList(image);
+        };
+    }
+
+    @AfterMethod
+    private void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    public void paletteIsBuiltOncePerKey() {
+        PaletteCache cache = new PaletteCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        GifPalette first = cache.getPalette("example.com", samples(calls));
+        GifPalette second = cache.getPalette("example.com", samples(calls));
+        cache.getPalette("other.com", samples(calls));
+
+        assertSame(first, second);
+        assertEquals(calls.get(), 2);
+        assertNull(cache.getPaletteFile("example.com"));
+    }
+
+    public void paletteIsPersisted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        GifPalette built = new PaletteCache(directory).getPalette("http://example.com", samples(calls));
+
+        assertTrue(new File(directory, "http___example.com.palette").exists());
+
+        GifPalette loaded = new PaletteCache(directory).getPalette("http://example.com", samples(calls));
+
+        assertEquals(calls.get(), 1);
+        assertEquals(loaded.getColors(), built.getColors());
+    }
+
+    public void clear() {
+        PaletteCache cache = new PaletteCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getPalette("example.com", samples(calls));
+        cache.clear();
+        cache.getPalette("example.com", samples(calls));
+
+        assertEquals(calls.get(), 2);
+    }
+
+    public void concurrentSessionsShareOneBuild() throws InterruptedException {
+        PaletteCache cache = new PaletteCache();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<CompletableFuture<GifPalette>> palettes = new ArrayList<>();
+            palettes.add(CompletableFuture.supplyAsync(() -> cache.getPalette("example.com", () -> {
+                building.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return samples(calls).get();
+            }), executor));
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 3; i++) {
+                palettes.add(CompletableFuture.supplyAsync(() -> cache.getPalette("example.com", samples(calls)),
+                    executor));
+            }
+            // other keys are not blocked by the palette being built
+            cache.getPalette("other.com", samples(calls));
+            release.countDown();
+
+            GifPalette first = palettes.get(0).join();
+            palettes.forEach(palette -> assertSame(palette.join(), first));
+            assertEquals(calls.get(), 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void failedBuildIsRetried() {
+        PaletteCache cache = new PaletteCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            cache.getPalette("example.com", () -> {
+                throw new IllegalStateException("no screenshot");
+            });
+            fail("The palette should not be built");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        assertNotNull(cache.getPalette("example.com", samples(calls)));
+        assertEquals(calls.get(), 1);
+    }
+
+    public void shared() {
+        assertSame(PaletteCache.getShared(), PaletteCache.getShared());
+    }
+}
@@ -0,0 +1,458 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.LogEntries;
+import org.openqa.selenium.logging.Logs;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for a browser that renders {@link PageWorkload} screenshots, used to drive
+ * {@link GifWebDriver} end to end in load tests and benchmarks without a real browser
+ */
+public class SyntheticWebDriver implements WebDriver, TakesScreenshot, JavascriptExecutor {
+
+    private final PageWorkload workload;
+
+    private final Map<String, Cookie> cookies = new ConcurrentHashMap<>();
+
+    private volatile int width;
+
+    private volatile int height;
+
+    private volatile Point position = new Point(0, 0);
+
+    private final AtomicInteger screenshotsTaken = new AtomicInteger();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private long latencyInMilliseconds = 0;
+
+    private volatile String currentUrl = "about:blank";
+
+    private volatile int scrollY = 0;
+
+    private volatile boolean quit = false;
+
+    public SyntheticWebDriver(PageWorkload workload, int width, int height) {
+        this.workload = workload;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Waits the simulated round trip to the browser
+     */
+    private void roundTrip() {
+        if (quit) {
+            throw new WebDriverException("Session was already quit");
+        }
+        calls.incrementAndGet();
+
+        if (latencyInMilliseconds > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyInMilliseconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+        }
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        roundTrip();
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(workload.render(width, height, screenshotsTaken.getAndIncrement(), scrollY), "png", out);
+            return target.convertFromPngBytes(out.toByteArray());
+        } catch (IOException e) {
+            throw new WebDriverException(e);
+        }
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        roundTrip();
+
+        if (script.contains("scroll")) {
+            scrollY += height / 2;
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return executeScript(script, args);
+    }
+
+    @Override
+    public void get(String url) {
+        roundTrip();
+        currentUrl = url;
+        scrollY = 0;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        roundTrip();
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        roundTrip();
+        return workload.name();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return Collections.singletonList(findElement(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        roundTrip();
+        return new SyntheticWebElement(this, by.toString());
+    }
+
+    @Override
+    public String getPageSource() {
+        roundTrip();
+        return String.format("<html><body data-workload='%s'></body></html>", workload);
+    }
+
+    @Override
+    public void close() {
+        quit();
+    }
+
+    @Override
+    public void quit() {
+        roundTrip();
+        quit = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton(getWindowHandle());
+    }
+
+    @Override
+    public String getWindowHandle() {
+        roundTrip();
+        return "synthetic";
+    }
+
+    /**
+     * Synthetic pages have a single window and no frames, switching is accepted and stays on the same page
+     */
+    @Override
+    public TargetLocator switchTo() {
+        return new TargetLocator() {
+            @Override
+            public WebDriver frame(int index) {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebDriver frame(String nameOrId) {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebDriver frame(WebElement frameElement) {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebDriver parentFrame() {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebDriver window(String nameOrHandle) {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebDriver defaultContent() {
+                roundTrip();
+                return SyntheticWebDriver.this;
+            }
+
+            @Override
+            public WebElement activeElement() {
+                roundTrip();
+                return new SyntheticWebElement(SyntheticWebDriver.this, "activeElement");
+            }
+
+            @Override
+            public Alert alert() {
+                roundTrip();
+                throw new NoAlertPresentException("Synthetic pages never show alerts");
+            }
+        };
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new Navigation() {
+            @Override
+            public void back() {
+                roundTrip();
+            }
+
+            @Override
+            public void forward() {
+                roundTrip();
+            }
+
+            @Override
+            public void to(String url) {
+                get(url);
+            }
+
+            @Override
+            public void to(URL url) {
+                get(url.toString());
+            }
+
+            @Override
+            public void refresh() {
+                roundTrip();
+            }
+        };
+    }
+
+    /**
+     * Cookies are kept in memory, timeouts and input methods are ignored and resizing the window changes the
+     * resolution of the next screenshots
+     */
+    @Override
+    public Options manage() {
+        return new Options() {
+            @Override
+            public void addCookie(Cookie cookie) {
+                roundTrip();
+                cookies.put(cookie.getName(), cookie);
+            }
+
+            @Override
+            public void deleteCookieNamed(String name) {
+                roundTrip();
+                cookies.remove(name);
+            }
+
+            @Override
+            public void deleteCookie(Cookie cookie) {
+                deleteCookieNamed(cookie.getName());
+            }
+
+            @Override
+            public void deleteAllCookies() {
+                roundTrip();
+                cookies.clear();
+            }
+
+            @Override
+            public Set<Cookie> getCookies() {
+                roundTrip();
+                return new HashSet<>(cookies.values());
+            }
+
+            @Override
+            public Cookie getCookieNamed(String name) {
+                roundTrip();
+                return cookies.get(name);
+            }
+
+            @Override
+            public Timeouts timeouts() {
+                return new Timeouts() {
+                    @Override
+                    public Timeouts implicitlyWait(long time, TimeUnit unit) {
+                        roundTrip();
+                        return this;
+                    }
+
+                    @Override
+                    public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+                        roundTrip();
+                        return this;
+                    }
+
+                    @Override
+                    public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+                        roundTrip();
+                        return this;
+                    }
+                };
+            }
+
+            @Override
+            public ImeHandler ime() {
+                return new ImeHandler() {
+                    @Override
+                    public List<String> getAvailableEngines() {
+                        roundTrip();
+                        return Collections.emptyList();
+                    }
+
+                    @Override
+                    public String getActiveEngine() {
+                        roundTrip();
+                        return "";
+                    }
+
+                    @Override
+                    public boolean isActivated() {
+                        roundTrip();
+                        return false;
+                    }
+
+                    @Override
+                    public void deactivate() {
+                        roundTrip();
+                    }
+
+                    @Override
+                    public void activateEngine(String engine) {
+                        roundTrip();
+                    }
+                };
+            }
+
+            @Override
+            public Window window() {
+                return new Window() {
+                    @Override
+                    public void setSize(Dimension targetSize) {
+                        roundTrip();
+                        width = targetSize.getWidth();
+                        height = targetSize.getHeight();
+                    }
+
+                    @Override
+                    public void setPosition(Point targetPosition) {
+                        roundTrip();
+                        position = targetPosition;
+                    }
+
+                    @Override
+                    public Dimension getSize() {
+                        roundTrip();
+                        return new Dimension(width, height);
+                    }
+
+                    @Override
+                    public Point getPosition() {
+                        roundTrip();
+                        return position;
+                    }
+
+                    @Override
+                    public void maximize() {
+                        roundTrip();
+                    }
+
+                    @Override
+                    public void fullscreen() {
+                        roundTrip();
+                    }
+                };
+            }
+
+            @Override
+            public Logs logs() {
+                return new Logs() {
+                    @Override
+                    public LogEntries get(String logType) {
+                        roundTrip();
+                        return new LogEntries(Collections.emptyList());
+                    }
+
+                    @Override
+                    public Set<String> getAvailableLogTypes() {
+                        roundTrip();
+                        return Collections.emptySet();
+                    }
+                };
+            }
+        };
+    }
+
+    void click() {
+        roundTrip();
+    }
+
+    /**
+     * Set the time every call waits to simulate the round trip to a browser
+     *
+     * @param latencyInMilliseconds - value in milliseconds
+     */
+    public void setLatencyInMilliseconds(long latencyInMilliseconds) {
+        this.latencyInMilliseconds = latencyInMilliseconds;
+    }
+
+    public long getLatencyInMilliseconds() {
+        return latencyInMilliseconds;
+    }
+
+    public PageWorkload getWorkload() {
+        return workload;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return - number of screenshots rendered so far
+     */
+    public int getScreenshotsTaken() {
+        return screenshotsTaken.get();
+    }
+
+    /**
+     * @return - number of simulated round trips so far
+     */
+    public int getCalls() {
+        return calls.get();
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+}
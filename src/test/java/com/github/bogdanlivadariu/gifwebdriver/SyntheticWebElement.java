@@ -0,0 +1,111 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Element of a {@link SyntheticWebDriver} page, every interaction costs a simulated round trip
+ */
+public class SyntheticWebElement implements WebElement {
+
+    private final SyntheticWebDriver driver;
+
+    private final String locator;
+
+    SyntheticWebElement(SyntheticWebDriver driver, String locator) {
+        this.driver = driver;
+        this.locator = locator;
+    }
+
+    @Override
+    public void click() {
+        driver.click();
+    }
+
+    @Override
+    public void submit() {
+        driver.click();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        driver.click();
+    }
+
+    @Override
+    public void clear() {
+        driver.click();
+    }
+
+    @Override
+    public String getTagName() {
+        return "div";
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return null;
+    }
+
+    @Override
+    public boolean isSelected() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getText() {
+        return locator;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return Collections.singletonList(findElement(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return driver.findElement(by);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        return new Point(0, 0);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return new Dimension(driver.getWidth(), driver.getHeight());
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return new Rectangle(getLocation(), getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return driver.getScreenshotAs(target);
+    }
+}
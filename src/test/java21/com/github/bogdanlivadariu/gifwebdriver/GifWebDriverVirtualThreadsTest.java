@@ -0,0 +1,90 @@
+package com.github.bogdanlivadariu.gifwebdriver;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Runs several sessions sharing a worker on virtual threads and checks, through the JFR
+ * jdk.VirtualThreadPinned event, that captures blocked on the browser do not pin their carrier thread
+ */
+@Test
+public class GifWebDriverVirtualThreadsTest {
+
+    private static final String ROOT_DIR = "target" + File.separator + "gifVirtualThreadsTest";
+
+    private static final String PACKAGE = GifWebDriver.class.getPackage().getName();
+
+    @AfterMethod
+    private void tearDown() throws IOException {
+        FileUtils.deleteDirectory(new File(ROOT_DIR));
+    }
+
+    public void capturesDoNotPinCarrierThreads() throws Exception {
+        SyntheticWebDriver driver = new SyntheticWebDriver(PageWorkload.ANIMATED_REGION, 64, 48);
+        driver.setLatencyInMilliseconds(20);
+
+        GifWebDriver gifDriver =
+            new GifWebDriver(driver, new GifScreenshotWorker(driver, ROOT_DIR, "screenshots", "generatedGifs", true));
+
+        AtomicInteger virtualCaptures = new AtomicInteger();
+        List<RecordedEvent> pinnedEvents = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             Recording recording = new Recording()) {
+            gifDriver.setExecutor(task -> executor.execute(() -> {
+                if (Thread.currentThread().isVirtual()) {
+                    virtualCaptures.incrementAndGet();
+                }
+                task.run();
+            }));
+
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            List<CompletableFuture<Void>> captures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                captures.add(gifDriver.takeScreenshotAsync());
+            }
+            CompletableFuture.allOf(captures.toArray(new CompletableFuture<?>[0])).join();
+            assertNotNull(gifDriver.createGifAsync().join());
+
+            recording.stop();
+            Path dump = new File(ROOT_DIR, "pinning.jfr").toPath();
+            dump.toFile().getParentFile().mkdirs();
+            recording.dump(dump);
+
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                if (event.getStackTrace() == null) {
+                    continue;
+                }
+                for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                    if (frame.getMethod().getType().getName().startsWith(PACKAGE)) {
+                        pinnedEvents.add(event);
+                        break;
+                    }
+                }
+            }
+        }
+
+        assertEquals(virtualCaptures.get(), 17);
+        assertTrue(pinnedEvents.isEmpty(), "Virtual threads were pinned: " + pinnedEvents);
+    }
+}